@@ -2,6 +2,7 @@ import { Request, Response } from 'express';
 import { get, all, run } from '../db/database';
 import { ClanDiary, DiaryCreateRequest, DiaryUpdateRequest, ApiResponse } from '../models/types';
 import { v4 as uuidv4 } from 'uuid';
+import { isNotModified } from '../middleware/conditional';
 
 /**
  * Get all diaries, optionally filtered by category or active status
@@ -10,22 +11,31 @@ export async function getAllDiaries(req: Request, res: Response) {
   try {
     const { category, active } = req.query;
 
-    let sql = 'SELECT * FROM diaries WHERE 1=1';
+    let where = ' WHERE 1=1';
     const params: any[] = [];
 
     if (category) {
-      sql += ' AND category = ?';
+      where += ' AND category = ?';
       params.push(category);
     }
 
     if (active !== undefined) {
-      sql += ' AND active = ?';
+      where += ' AND active = ?';
       params.push(active === 'true' ? 1 : 0);
     }
 
-    sql += ' ORDER BY created_date DESC';
+    // Validate against a cheap aggregate before reading and parsing every diary.
+    // Count and sum change on deletes and imports that leave the newest timestamp alone.
+    const version = await get<{ count: number; maxModified: number | null; sumModified: number | null }>(
+      'SELECT COUNT(*) AS count, MAX(last_modified) AS maxModified, SUM(last_modified) AS sumModified FROM diaries' + where,
+      params
+    );
+    const etag = `W/"${version?.count || 0}-${version?.maxModified || 0}-${version?.sumModified || 0}"`;
+    if (isNotModified(req, res, etag, version?.maxModified || undefined)) {
+      return res.status(304).end();
+    }
 
-    const rows = await all(sql, params);
+    const rows = await all('SELECT * FROM diaries' + where + ' ORDER BY created_date DESC', params);
 
     // Parse tiers_json for each diary
     const diaries = rows.map((row: any) => ({
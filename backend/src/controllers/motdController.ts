@@ -1,19 +1,28 @@
 import { Request, Response } from 'express';
+import { createHash } from 'crypto';
 import { get, run } from '../db/database';
 import { ApiResponse } from '../models/types';
+import { isNotModified } from '../middleware/conditional';
 
 /**
  * Get the message of the day
  */
 export async function getMotd(req: Request, res: Response) {
   try {
-    const config = await get<{ value: string }>(
-      'SELECT value FROM config WHERE key = ?',
+    const config = await get<{ value: string; updated_at: string | null }>(
+      'SELECT value, updated_at FROM config WHERE key = ?',
       ['motd']
     );
 
     const motd = config?.value || '';
 
+    // updated_at is stored as UTC "YYYY-MM-DD HH:MM:SS"
+    const updatedAt = config?.updated_at ? Date.parse(config.updated_at.replace(' ', 'T') + 'Z') : NaN;
+    const etag = `W/"${createHash('sha1').update(motd).digest('hex')}"`;
+    if (isNotModified(req, res, etag, isNaN(updatedAt) ? undefined : updatedAt)) {
+      return res.status(304).end();
+    }
+
     const response: ApiResponse<string> = {
       success: true,
       data: motd
@@ -0,0 +1,33 @@
+import { Request, Response } from 'express';
+
+/**
+ * Set cache validators on a response and check the request's conditional headers against them.
+ * Returns true when the client's copy is current, so the caller can answer 304 without
+ * building the body. If-None-Match takes precedence over If-Modified-Since.
+ */
+export function isNotModified(req: Request, res: Response, etag: string, lastModified?: number): boolean {
+  res.setHeader('ETag', etag);
+  res.setHeader('Cache-Control', 'no-cache');
+  if (lastModified) {
+    res.setHeader('Last-Modified', new Date(lastModified).toUTCString());
+  }
+
+  const ifNoneMatch = req.headers['if-none-match'];
+  if (ifNoneMatch) {
+    // Weak comparison: ignore the W/ prefix
+    const current = etag.replace(/^W\//, '');
+    return ifNoneMatch
+      .split(',')
+      .map(tag => tag.trim())
+      .some(tag => tag === '*' || tag.replace(/^W\//, '') === current);
+  }
+
+  const ifModifiedSince = req.headers['if-modified-since'];
+  if (ifModifiedSince && lastModified) {
+    const since = Date.parse(ifModifiedSince);
+    // HTTP dates only have second precision
+    return !isNaN(since) && Math.floor(lastModified / 1000) <= Math.floor(since / 1000);
+  }
+
+  return false;
+}
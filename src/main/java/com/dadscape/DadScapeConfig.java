@@ -5,6 +5,7 @@ import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
 import net.runelite.client.config.Range;
+import net.runelite.client.config.Units;
 
 @ConfigGroup("dadscape")
 public interface DadScapeConfig extends Config
@@ -78,6 +79,20 @@ public interface DadScapeConfig extends Config
 		return "";
 	}
 
+	@ConfigItem(
+		keyName = "chatPatternBudget",
+		name = "Chat Pattern Budget",
+		description = "Maximum time spent matching task chat regexes against one message",
+		section = diarySection,
+		position = 5
+	)
+	@Range(min = 1, max = 100)
+	@Units(Units.MILLISECONDS)
+	default int chatPatternBudget()
+	{
+		return 5;
+	}
+
 	@ConfigItem(
 		keyName = "clanDiaries",
 		name = "",
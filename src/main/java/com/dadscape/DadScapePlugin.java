@@ -1,9 +1,21 @@
 package com.dadscape;
 
+import com.dadscape.manager.ApiService;
 import com.dadscape.manager.DadCredManager;
 import com.dadscape.manager.DiaryManager;
 import com.dadscape.manager.PermissionManager;
 import com.dadscape.manager.TaskTracker;
+import com.dadscape.manager.TrackingPipeline;
+import com.dadscape.tracker.ChatEvent;
+import com.dadscape.tracker.EngagementTracker;
+import com.dadscape.tracker.GameMessageEvent;
+import com.dadscape.tracker.ItemContainerDiffer;
+import com.dadscape.tracker.ItemEvent;
+import com.dadscape.tracker.KillEvent;
+import com.dadscape.tracker.LocationEvent;
+import com.dadscape.tracker.StatEvent;
+import com.dadscape.tracker.TickBatcher;
+import com.dadscape.tracker.VarEvent;
 import com.dadscape.ui.DadScapePanel;
 import com.google.inject.Provides;
 import lombok.extern.slf4j.Slf4j;
@@ -11,11 +23,19 @@ import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
 import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.Skill;
+import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.ActorDeath;
 import net.runelite.api.events.ChatMessage;
 import net.runelite.api.events.ClanChannelChanged;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GameTick;
+import net.runelite.api.events.HitsplatApplied;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.StatChanged;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.gameval.InventoryID;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
@@ -27,7 +47,12 @@ import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.util.ImageUtil;
 
 import javax.inject.Inject;
+import javax.swing.SwingUtilities;
 import java.awt.image.BufferedImage;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
 
 @Slf4j
 @PluginDescriptor(
@@ -59,20 +84,84 @@ public class DadScapePlugin extends Plugin
 	@Inject
 	private TaskTracker taskTracker;
 
+	@Inject
+	private TrackingPipeline trackingPipeline;
+
+	@Inject
+	private ApiService apiService;
+
 	@Inject
 	private DadScapePanel panel;
 
 	@Inject
 	private ConfigManager configManager;
 
+	@Inject
+	private ScheduledExecutorService executor;
+
 	private NavigationButton navButton;
 	private boolean initialRefreshDone = false;
 
+	// Completes once diaries are loaded and the plugin is fully initialized
+	private volatile CompletableFuture<Void> ready;
+
+	// Task handler revision that current levels, vars and location were last back-filled for
+	private int backfilledRevision = -1;
+
+	// Tracker events seen during the current tick, handed off once per GameTick
+	private final TickBatcher tickBatcher = new TickBatcher();
+
+	// Previous inventory and equipment contents, for item gain diffs
+	private final ItemContainerDiffer itemContainerDiffer = new ItemContainerDiffer();
+
+	// NPCs the local player recently hit, for kill attribution
+	private final EngagementTracker engagementTracker = new EngagementTracker();
+
+	// Last tile reported for location tasks
+	private WorldPoint lastLocation;
+
+	// RSN of the local player, cached every tick so the final batch can still be
+	// attributed once the player is gone at logout
+	private String playerName;
+
 	@Override
 	protected void startUp() throws Exception
 	{
 		log.info("DadScape started!");
 
+		// Reset refresh flag
+		initialRefreshDone = false;
+
+		// Everything that reads config or storage happens in the background; until it is done,
+		// the panel shows a placeholder and the tracking worker holds queued events
+		CompletableFuture<Void> startup = CompletableFuture.runAsync(this::initialize, executor);
+		ready = startup;
+		startup.whenComplete((result, ex) -> {
+			// Cancelled by a shutdown before startup finished; nothing failed
+			if (startup.isCancelled() || isCancellation(ex))
+			{
+				return;
+			}
+
+			if (ex != null)
+			{
+				log.error("DadScape failed to initialize", ex);
+			}
+			SwingUtilities.invokeLater(this::refreshPanel);
+		});
+
+		// Start the tracking worker and periodic progress persistence
+		trackingPipeline.start(ready);
+
+		// Add panel to sidebar
+		addPanel();
+	}
+
+	/**
+	 * Slow startup work, run off the client thread
+	 */
+	private void initialize()
+	{
 		// One-time migration: Reset minEditRank if it's still set to old default (125)
 		// Remove this code block after users have migrated
 		if (config.minEditRank() == 125)
@@ -94,12 +183,53 @@ public class DadScapePlugin extends Plugin
 			log.info("API sync enabled, fetching diaries from API");
 			diaryManager.syncFromApi();
 		}
+	}
 
-		// Add panel to sidebar
-		addPanel();
+	/**
+	 * Check if startup initialization has finished
+	 */
+	private boolean isReady()
+	{
+		CompletableFuture<Void> current = ready;
+		return current != null && current.isDone();
+	}
 
-		// Reset refresh flag
-		initialRefreshDone = false;
+	/**
+	 * Run a task once startup initialization has finished, right away if it already has
+	 */
+	private void whenReady(Runnable task)
+	{
+		ready.thenRunAsync(task, executor).exceptionally(ex -> {
+			if (!isCancellation(ex))
+			{
+				log.error("Error running DadScape task after startup", ex);
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Check if a startup future, or a stage depending on it, failed only because startup was cancelled
+	 */
+	private static boolean isCancellation(Throwable ex)
+	{
+		return ex instanceof CancellationException
+			|| ex instanceof CompletionException && ex.getCause() instanceof CancellationException;
+	}
+
+	/**
+	 * Refresh the panel from current data; the placeholder stays up until startup finishes
+	 */
+	private void refreshPanel()
+	{
+		if (panel == null || !isReady())
+		{
+			return;
+		}
+
+		panel.refreshDadCred();
+		panel.refreshPermissionStatus();
+		panel.refreshDiaryList();
 	}
 
 	@Override
@@ -107,7 +237,11 @@ public class DadScapePlugin extends Plugin
 	{
 		log.info("DadScape stopped!");
 
-		// Clear task tracker cache
+		// Release the tracking worker if startup is still running
+		ready.cancel(false);
+
+		// Drain queued events, write out pending progress and clear task tracker cache
+		trackingPipeline.stop();
 		taskTracker.clearCache();
 
 		// Remove panel from sidebar
@@ -117,7 +251,20 @@ public class DadScapePlugin extends Plugin
 	@Subscribe
 	public void onGameStateChanged(GameStateChanged gameStateChanged)
 	{
-		if (gameStateChanged.getGameState() == GameState.LOGGED_IN)
+		GameState gameState = gameStateChanged.getGameState();
+		if (gameState == GameState.LOGIN_SCREEN || gameState == GameState.HOPPING || gameState == GameState.CONNECTION_LOST)
+		{
+			// Persist pending progress before leaving the world
+			submitTickBatch();
+			trackingPipeline.flush();
+			itemContainerDiffer.clear();
+			engagementTracker.clear();
+			lastLocation = null;
+			playerName = null;
+			return;
+		}
+
+		if (gameState == GameState.LOGGED_IN)
 		{
 			// Update permission manager with config
 			permissionManager.setMinEditRank(config.minEditRank());
@@ -125,21 +272,24 @@ public class DadScapePlugin extends Plugin
 
 			// Reset refresh flag so we refresh after clan data loads
 			initialRefreshDone = false;
+			backfilledRevision = -1;
 
-			// Display message of the day if it exists
-			String motd = diaryManager.getMessageOfTheDay();
-			if (motd != null && !motd.trim().isEmpty())
-			{
-				// Show MOTD in chat with a slight delay to ensure game is ready
-				clientThread.invokeLater(() -> {
-					client.addChatMessage(
-						ChatMessageType.CLAN_CHAT,
-						"DadBot",
-						"<col=00ff00>Message of the Day:</col> " + motd,
-						"DadScape"
-					);
-				});
-			}
+			// Display message of the day if it exists, once it has been loaded
+			whenReady(() -> {
+				String motd = diaryManager.getMessageOfTheDay();
+				if (motd != null && !motd.trim().isEmpty())
+				{
+					// Show MOTD in chat with a slight delay to ensure game is ready
+					clientThread.invokeLater(() -> {
+						client.addChatMessage(
+							ChatMessageType.CLAN_CHAT,
+							"DadBot",
+							"<col=00ff00>Message of the Day:</col> " + motd,
+							"DadScape"
+						);
+					});
+				}
+			});
 		}
 	}
 
@@ -152,12 +302,7 @@ public class DadScapePlugin extends Plugin
 		log.debug("Clan channel changed, refreshing admin panel");
 
 		// Refresh panel when clan data changes
-		if (panel != null)
-		{
-			panel.refreshDadCred();
-			panel.refreshPermissionStatus();
-			panel.refreshDiaryList();
-		}
+		refreshPanel();
 	}
 
 	/**
@@ -167,21 +312,32 @@ public class DadScapePlugin extends Plugin
 	@Subscribe
 	public void onGameTick(GameTick event)
 	{
-		// Only do this once after login
-		if (!initialRefreshDone && client.getGameState() == GameState.LOGGED_IN)
+		engagementTracker.expire(client.getTickCount());
+		trackLocation();
+
+		String name = permissionManager.getPlayerName();
+		if (!name.equals("Unknown"))
+		{
+			playerName = name;
+		}
+		submitTickBatch();
+
+		// Back-fill tasks from current levels, vars and location after login and whenever the tasks change
+		int revision = taskTracker.getIndexedRevision();
+		if (revision != backfilledRevision && client.getLocalPlayer() != null)
+		{
+			backfill();
+			backfilledRevision = revision;
+		}
+
+		// Only do this once after login, and after startup finished loading the diaries
+		if (!initialRefreshDone && isReady() && client.getGameState() == GameState.LOGGED_IN)
 		{
 			// Check if we have clan data
 			if (client.getClanChannel() != null || client.getLocalPlayer() != null)
 			{
 				log.debug("Initial refresh of panel with clan data");
-
-				if (panel != null)
-				{
-					panel.refreshDadCred();
-					panel.refreshPermissionStatus();
-					panel.refreshDiaryList();
-				}
-
+				refreshPanel();
 				initialRefreshDone = true;
 			}
 		}
@@ -210,7 +366,7 @@ public class DadScapePlugin extends Plugin
 				log.debug("Updated minimum edit rank to: {}", config.minEditRank());
 
 				// Refresh panel to update permission status
-				if (panel != null)
+				if (panel != null && isReady())
 				{
 					panel.refreshPermissionStatus();
 				}
@@ -220,59 +376,77 @@ public class DadScapePlugin extends Plugin
 				// Reload diaries if feature was toggled
 				if (config.enableDiaries())
 				{
-					diaryManager.loadDiaries();
-					if (panel != null)
-					{
-						panel.refreshDiaryList();
-					}
+					whenReady(() -> {
+						diaryManager.loadDiaries();
+						SwingUtilities.invokeLater(this::refreshPanel);
+					});
 				}
 				break;
 
 			case "enableApiSync":
 			case "apiEndpoint":
 			case "apiKey":
+				// Validators from the old server or key do not apply any more
+				apiService.clearValidators();
+
 				// Re-sync from API when API settings change
 				if (config.enableApiSync() && config.apiKey() != null && !config.apiKey().isEmpty())
 				{
 					log.info("API settings changed, re-syncing from API");
-					diaryManager.syncFromApi();
-					if (panel != null)
-					{
-						panel.refreshDiaryList();
-					}
+					whenReady(() -> {
+						diaryManager.syncFromApi();
+						SwingUtilities.invokeLater(this::refreshPanel);
+					});
 				}
 				break;
 		}
 	}
 
 	/**
-	 * Listen for chat messages to track consumable/custom tasks
+	 * Listen for chat messages to track consumable/custom and boss tasks
 	 */
 	@Subscribe
 	public void onChatMessage(ChatMessage chatMessage)
 	{
-		// Only track SPAM messages (item consumption, etc.)
-		if (chatMessage.getType() != ChatMessageType.SPAM)
+		String message = chatMessage.getMessage();
+		if (message == null || message.isEmpty())
 		{
 			return;
 		}
 
-		String message = chatMessage.getMessage();
-		if (message == null || message.isEmpty())
+		// Batch the message; it is handed to the tracking worker on the next game tick
+		if (chatMessage.getType() == ChatMessageType.SPAM)
 		{
-			return;
+			// Item consumption, etc.
+			if (taskTracker.isTracking(ChatEvent.class))
+			{
+				tickBatcher.addChat(message);
+			}
 		}
+		else if (chatMessage.getType() == ChatMessageType.GAMEMESSAGE)
+		{
+			// Boss kill counts
+			if (taskTracker.isTracking(GameMessageEvent.class))
+			{
+				tickBatcher.add(new GameMessageEvent(message));
+			}
+		}
+	}
 
-		// Get player name
-		String playerName = permissionManager.getPlayerName();
-		if (playerName == null || playerName.equals("Unknown"))
+	/**
+	 * Remember NPCs the local player hits, to credit their deaths
+	 */
+	@Subscribe
+	public void onHitsplatApplied(HitsplatApplied hitsplatApplied)
+	{
+		if (!(hitsplatApplied.getActor() instanceof NPC) || !hitsplatApplied.getHitsplat().isMine()
+			|| !taskTracker.isTracking(KillEvent.class))
 		{
 			return;
 		}
 
-		// Track the chat message for custom tasks
-		log.debug("Chat SPAM message: {}", message);
-		taskTracker.onChatMessage(playerName, message);
+		NPC npc = (NPC) hitsplatApplied.getActor();
+		engagementTracker.engage(npc.getIndex(), client.getTickCount());
 	}
 
 	/**
@@ -287,36 +461,134 @@ public class DadScapePlugin extends Plugin
 			return;
 		}
 
+		// Only credit NPCs the local player recently hit; this covers multi-target kills too
 		NPC npc = (NPC) actorDeath.getActor();
-		String npcName = npc.getName();
+		if (!engagementTracker.consume(npc.getIndex(), client.getTickCount()))
+		{
+			return;
+		}
 
+		String npcName = npc.getName();
 		if (npcName == null)
 		{
 			return;
 		}
 
-		// Check if there was combat interaction between the player and NPC
-		// This ensures we only track kills by the local player
-		// Check both directions to handle one-shots and normal combat
-		boolean npcWasAttackingPlayer = npc.getInteracting() == client.getLocalPlayer();
-		boolean playerWasAttackingNpc = client.getLocalPlayer().getInteracting() == npc;
+		// Batch the kill; it is handed to the tracking worker on the next game tick
+		tickBatcher.addKill(npc.getId(), npcName);
+	}
+
+	/**
+	 * Listen for level changes to track skill tasks
+	 */
+	@Subscribe
+	public void onStatChanged(StatChanged statChanged)
+	{
+		if (!taskTracker.isTracking(StatEvent.class))
+		{
+			return;
+		}
+
+		// Batch the level; it is handed to the tracking worker on the next game tick
+		tickBatcher.addStat(statChanged.getSkill(), statChanged.getLevel(), false);
+	}
+
+	/**
+	 * Listen for inventory and equipment changes to track item tasks
+	 */
+	@Subscribe
+	public void onItemContainerChanged(ItemContainerChanged event)
+	{
+		int containerId = event.getContainerId();
+		if ((containerId != InventoryID.INV && containerId != InventoryID.WORN) || !taskTracker.isTracking(ItemEvent.class))
+		{
+			return;
+		}
 
-		if (!npcWasAttackingPlayer && !playerWasAttackingNpc)
+		// Only items gained since the last change are batched
+		itemContainerDiffer.diff(containerId, event.getItemContainer().getItems(), tickBatcher);
+	}
+
+	/**
+	 * Batch the player's tile for location tasks when it changed since the last tick
+	 */
+	private void trackLocation()
+	{
+		Player player = client.getLocalPlayer();
+		if (player == null || !taskTracker.isTracking(LocationEvent.class))
+		{
+			return;
+		}
+
+		// Map instanced tiles back to their real world location
+		WorldPoint location = WorldPoint.fromLocalInstance(client, player.getLocalLocation());
+		if (location.equals(lastLocation))
+		{
+			return;
+		}
+		lastLocation = location;
+
+		tickBatcher.add(new LocationEvent(location.getX(), location.getY(), location.getPlane(), location.getRegionID()));
+	}
+
+	/**
+	 * Listen for varbit and varp changes to track quest and minigame tasks
+	 */
+	@Subscribe
+	public void onVarbitChanged(VarbitChanged varbitChanged)
+	{
+		int varbitId = varbitChanged.getVarbitId();
+		boolean varbit = varbitId != -1;
+		int id = varbit ? varbitId : varbitChanged.getVarpId();
+
+		// Most var changes are not watched by any task
+		if (!taskTracker.isWatchingVar(varbit, id))
+		{
+			return;
+		}
+
+		tickBatcher.add(new VarEvent(varbit, id, varbitChanged.getValue()));
+	}
+
+	/**
+	 * Batch current levels, watched var values and the player's tile, so tasks met while
+	 * the plugin was off (or before a task was added) are picked up
+	 */
+	private void backfill()
+	{
+		if (taskTracker.isTracking(StatEvent.class))
+		{
+			for (Skill skill : Skill.values())
+			{
+				tickBatcher.addStat(skill, client.getRealSkillLevel(skill), true);
+			}
+		}
+
+		taskTracker.forEachWatchedVar((varbit, id) ->
+			tickBatcher.add(new VarEvent(varbit, id, varbit ? client.getVarbitValue(id) : client.getVarpValue(id))));
+
+		// The tile only goes out when it changes; send it again for tasks in the area the player is standing in
+		lastLocation = null;
+		trackLocation();
+	}
+
+	/**
+	 * Hand this tick's aggregated events to the tracking worker, attributed to the cached RSN
+	 */
+	private void submitTickBatch()
+	{
+		if (tickBatcher.isEmpty())
 		{
-			log.debug("NPC {} died but had no combat interaction with local player, skipping", npcName);
 			return;
 		}
 
-		// Get player name
-		String playerName = permissionManager.getPlayerName();
-		if (playerName == null || playerName.equals("Unknown"))
+		if (playerName == null)
 		{
+			tickBatcher.clear();
 			return;
 		}
 
-		// Track the kill
-		log.debug("NPC killed by player: {}", npcName);
-		taskTracker.onNpcKilled(playerName, npcName);
+		trackingPipeline.submit(tickBatcher.drain(playerName));
 	}
 
 	/**
@@ -6,6 +6,7 @@ import com.dadscape.model.UserProgress;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.config.ConfigManager;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -14,6 +15,9 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -24,19 +28,31 @@ import java.util.concurrent.CompletableFuture;
 /**
  * Handles HTTP communication with the DadScape backend API
  * Uses Java 11's HttpClient for async, non-blocking requests
+ * Diary and MOTD fetches are conditional: the ETag/Last-Modified validators of the last
+ * response are kept in config, and a 304 reply skips downloading and parsing the body.
+ * Validators are keyed by the URL and API key they were issued for, and are cleared when
+ * the API settings change or the local copy is edited.
  */
 @Slf4j
 @Singleton
 public class ApiService
 {
+	private static final String CONFIG_GROUP = "dadscape";
+	private static final String VALIDATORS_KEY_PREFIX = "apiValidators_";
+
+	private static final String DIARIES_RESOURCE = "diaries";
+	private static final String MOTD_RESOURCE = "motd";
+
 	private final DadScapeConfig config;
+	private final ConfigManager configManager;
 	private final Gson gson;
 	private final HttpClient httpClient;
 
 	@Inject
-	public ApiService(DadScapeConfig config, Gson gson)
+	public ApiService(DadScapeConfig config, ConfigManager configManager, Gson gson)
 	{
 		this.config = config;
+		this.configManager = configManager;
 		this.gson = gson;
 
 		// Create HttpClient with timeout and connection pooling
@@ -59,8 +75,12 @@ public class ApiService
 
 	/**
 	 * Fetch all diaries from API
+	 *
+	 * @param conditional send the validators of the last fetch; only pass true when the
+	 *                    diaries from that fetch are still cached locally
+	 * @return the diaries, or null if they have not changed since the last fetch
 	 */
-	public CompletableFuture<List<ClanDiary>> fetchDiaries()
+	public CompletableFuture<List<ClanDiary>> fetchDiaries(boolean conditional)
 	{
 		if (!isConfigured())
 		{
@@ -70,16 +90,25 @@ public class ApiService
 		String url = config.apiEndpoint() + "/api/diaries";
 		log.debug("Fetching diaries from: {}", url);
 
-		HttpRequest request = HttpRequest.newBuilder()
+		HttpRequest.Builder builder = HttpRequest.newBuilder()
 			.uri(URI.create(url))
 			.header("Authorization", "Bearer " + config.apiKey())
 			.header("Content-Type", "application/json")
 			.GET()
-			.timeout(Duration.ofSeconds(10))
-			.build();
+			.timeout(Duration.ofSeconds(10));
+		if (conditional)
+		{
+			addValidators(builder, DIARIES_RESOURCE, url);
+		}
 
-		return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+		return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString())
 			.thenApply(response -> {
+				if (response.statusCode() == 304)
+				{
+					log.debug("Diaries unchanged since the last fetch");
+					return null;
+				}
+
 				if (response.statusCode() == 200)
 				{
 					try
@@ -92,6 +121,7 @@ public class ApiService
 						if (apiResponse != null && apiResponse.success && apiResponse.data != null)
 						{
 							log.info("Fetched {} diaries from API", apiResponse.data.size());
+							saveValidators(DIARIES_RESOURCE, url, response);
 							return apiResponse.data;
 						}
 					}
@@ -286,8 +316,12 @@ public class ApiService
 
 	/**
 	 * Fetch message of the day from API
+	 *
+	 * @param conditional send the validators of the last fetch; only pass true when the
+	 *                    message from that fetch is still cached locally
+	 * @return the message, or null if it has not changed since the last fetch
 	 */
-	public CompletableFuture<String> fetchMotd()
+	public CompletableFuture<String> fetchMotd(boolean conditional)
 	{
 		if (!isConfigured())
 		{
@@ -297,15 +331,24 @@ public class ApiService
 		String url = config.apiEndpoint() + "/api/motd";
 		log.debug("Fetching MOTD from API");
 
-		HttpRequest request = HttpRequest.newBuilder()
+		HttpRequest.Builder builder = HttpRequest.newBuilder()
 			.uri(URI.create(url))
 			.header("Authorization", "Bearer " + config.apiKey())
 			.GET()
-			.timeout(Duration.ofSeconds(10))
-			.build();
+			.timeout(Duration.ofSeconds(10));
+		if (conditional)
+		{
+			addValidators(builder, MOTD_RESOURCE, url);
+		}
 
-		return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+		return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString())
 			.thenApply(response -> {
+				if (response.statusCode() == 304)
+				{
+					log.debug("MOTD unchanged since the last fetch");
+					return null;
+				}
+
 				if (response.statusCode() == 200)
 				{
 					try
@@ -318,6 +361,7 @@ public class ApiService
 						if (apiResponse != null && apiResponse.success && apiResponse.data != null)
 						{
 							log.debug("Fetched MOTD from API");
+							saveValidators(MOTD_RESOURCE, url, response);
 							return apiResponse.data;
 						}
 					}
@@ -380,6 +424,121 @@ public class ApiService
 			});
 	}
 
+	/**
+	 * Forget every stored validator, so the next fetches download in full.
+	 * Call when the API settings change.
+	 */
+	public void clearValidators()
+	{
+		clearValidators(DIARIES_RESOURCE);
+		clearValidators(MOTD_RESOURCE);
+	}
+
+	/**
+	 * Forget the diaries' validators after a local edit, so the next sync replaces it
+	 */
+	public void clearDiaryValidators()
+	{
+		clearValidators(DIARIES_RESOURCE);
+	}
+
+	/**
+	 * Forget the MOTD's validators after a local edit, so the next sync replaces it
+	 */
+	public void clearMotdValidators()
+	{
+		clearValidators(MOTD_RESOURCE);
+	}
+
+	/**
+	 * Send the validators stored for a resource at this URL and API key, if any
+	 */
+	private void addValidators(HttpRequest.Builder builder, String resource, String url)
+	{
+		Validators validators = loadValidators(resource, url);
+		if (validators == null)
+		{
+			return;
+		}
+
+		if (validators.etag != null)
+		{
+			builder.header("If-None-Match", validators.etag);
+		}
+		if (validators.lastModified != null)
+		{
+			builder.header("If-Modified-Since", validators.lastModified);
+		}
+	}
+
+	/**
+	 * Remember a response's validators for the next conditional fetch, replacing any
+	 * stored for other URLs or API keys
+	 */
+	private void saveValidators(String resource, String url, HttpResponse<?> response)
+	{
+		Validators validators = new Validators();
+		validators.etag = response.headers().firstValue("ETag").orElse(null);
+		validators.lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+
+		clearValidators(resource);
+		if (validators.etag != null || validators.lastModified != null)
+		{
+			configManager.setConfiguration(CONFIG_GROUP, validatorsKey(resource, url), gson.toJson(validators));
+		}
+	}
+
+	private Validators loadValidators(String resource, String url)
+	{
+		String json = configManager.getConfiguration(CONFIG_GROUP, validatorsKey(resource, url));
+		if (json == null || json.isEmpty())
+		{
+			return null;
+		}
+
+		try
+		{
+			return gson.fromJson(json, Validators.class);
+		}
+		catch (Exception e)
+		{
+			log.warn("Ignoring unreadable validators for {}", resource, e);
+			return null;
+		}
+	}
+
+	private void clearValidators(String resource)
+	{
+		String prefix = CONFIG_GROUP + "." + VALIDATORS_KEY_PREFIX + resource + "_";
+		for (String key : configManager.getConfigurationKeys(prefix))
+		{
+			configManager.unsetConfiguration(CONFIG_GROUP, key.substring(CONFIG_GROUP.length() + 1));
+		}
+	}
+
+	/**
+	 * Config key for a resource's validators, scoped to the URL and API key.
+	 * The key is hashed so it is never written into a config key name.
+	 */
+	private String validatorsKey(String resource, String url)
+	{
+		try
+		{
+			byte[] digest = MessageDigest.getInstance("SHA-256")
+				.digest((url + "\n" + config.apiKey()).getBytes(StandardCharsets.UTF_8));
+			StringBuilder scope = new StringBuilder(16);
+			for (int i = 0; i < 8; i++)
+			{
+				scope.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+			}
+			return VALIDATORS_KEY_PREFIX + resource + "_" + scope;
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
 	/**
 	 * Parse API response JSON into ApiResponse object
 	 */
@@ -396,6 +555,15 @@ public class ApiService
 		}
 	}
 
+	/**
+	 * Cache validators of the last successful fetch of a resource
+	 */
+	private static class Validators
+	{
+		public String etag;
+		public String lastModified;
+	}
+
 	/**
 	 * Inner class representing API response structure
 	 */
@@ -1,6 +1,7 @@
 package com.dadscape.manager;
 
 import com.dadscape.model.ClanDiary;
+import com.dadscape.model.DiaryHeader;
 import com.dadscape.model.DiaryTask;
 import com.dadscape.model.DiaryTier;
 import lombok.extern.slf4j.Slf4j;
@@ -8,13 +9,29 @@ import lombok.extern.slf4j.Slf4j;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Manages CRUD operations for clan diaries.
  * Handles in-memory diary management and delegates storage to DiaryStorageService.
- * Syncs with backend API when enabled.
+ * Only diary headers are read at startup; a diary's tiers and tasks are loaded the first
+ * time it is asked for (opened in the UI, or active diaries when the task tracker builds
+ * its indexes on its worker thread). Syncs with backend API when enabled.
+ * <p>
+ * Concurrency: the client thread, the EDT, the tracking worker and HTTP callbacks all use
+ * this class. Reads of loaded diaries take no locks: they go through an immutable
+ * DiarySnapshot holding the headers and every diary loaded so far, which is swapped as a
+ * whole and never mutated. Changes, including loading a diary on first use, are serialized
+ * on this object's monitor and are copy-on-write: an edit copies the diary, changes the
+ * copy and publishes it in a new snapshot, so a reader never sees a diary mid-edit or a
+ * partly replaced diary set.
  */
 @Slf4j
 @Singleton
@@ -23,8 +40,17 @@ public class DiaryManager
 	private final DiaryStorageService storageService;
 	private final ApiService apiService;
 	private final PermissionManager permissionManager;
-	private List<ClanDiary> diaries;
-	private String messageOfTheDay;
+	private volatile String messageOfTheDay;
+
+	// Every diary's header in display order with lookups, and the loaded diaries;
+	// replaced on every change, never mutated
+	private volatile DiarySnapshot snapshot = DiarySnapshot.EMPTY;
+
+	// Bumped whenever the diary set changes so trackers can rebuild their indexes
+	private volatile int revision;
+
+	// IDs of diaries edited since the last save; guarded by this object's monitor
+	private final Set<String> dirtyDiaries = new HashSet<>();
 
 	@Inject
 	public DiaryManager(
@@ -36,98 +62,224 @@ public class DiaryManager
 		this.storageService = storageService;
 		this.apiService = apiService;
 		this.permissionManager = permissionManager;
-		this.diaries = new ArrayList<>();
 		this.messageOfTheDay = "";
 	}
 
 	/**
-	 * Load all diaries from storage
+	 * Load diary headers from storage; diary contents are loaded on first use
 	 */
-	public void loadDiaries()
+	public synchronized void loadDiaries()
 	{
+		dirtyDiaries.clear();
+
 		try
 		{
-			this.diaries = storageService.loadDiaries();
+			this.snapshot = DiarySnapshot.of(storageService.loadHeaders(), Collections.emptyMap());
 			this.messageOfTheDay = storageService.loadMotd();
-			log.info("Loaded {} diaries", diaries.size());
+			revision++;
+			log.info("Loaded {} diary headers", snapshot.getHeaders().size());
 		}
 		catch (Exception e)
 		{
 			log.error("Failed to load diaries", e);
-			this.diaries = new ArrayList<>();
+			this.snapshot = DiarySnapshot.EMPTY;
 			this.messageOfTheDay = "";
+			revision++;
 		}
 	}
 
 	/**
-	 * Save all diaries to storage
+	 * Save changed diaries to storage.
+	 * Every mutation goes through here, so this also marks the diary set as changed
+	 * when anything differs from what was stored.
 	 */
-	public void saveDiaries()
+	public synchronized void saveDiaries()
 	{
+		Set<String> dirty = new HashSet<>(dirtyDiaries);
+		dirtyDiaries.removeAll(dirty);
+
+		DiarySnapshot current = snapshot;
 		try
 		{
-			storageService.saveDiaries(diaries);
-			log.info("Saved {} diaries", diaries.size());
+			DiaryStorageService.SaveResult result = storageService.saveDiaries(current.getHeaders(), current.getLoaded(), dirty);
+			if (!result.getFailedIds().isEmpty())
+			{
+				// Retry them on the next save
+				dirtyDiaries.addAll(result.getFailedIds());
+				log.warn("Failed to save {} diaries", result.getFailedIds().size());
+			}
+			if (result.isChanged())
+			{
+				revision++;
+				log.info("Saved diaries ({} edited)", dirty.size());
+			}
 		}
 		catch (Exception e)
 		{
 			log.error("Failed to save diaries", e);
+			revision++;
 		}
 	}
 
 	/**
-	 * Get all diaries
+	 * Mark a diary as edited and save it
 	 */
-	public List<ClanDiary> getAllDiaries()
+	private void saveDiary(String diaryId)
 	{
-		return new ArrayList<>(diaries);
+		dirtyDiaries.add(diaryId);
+		saveDiaries();
 	}
 
 	/**
-	 * Get diaries by category
+	 * Publish a new version of a diary, with its header, in place of the current one or
+	 * after the existing diaries if it is new, and save it
 	 */
-	public List<ClanDiary> getDiariesByCategory(String category)
+	private void publish(ClanDiary diary)
 	{
-		List<ClanDiary> result = new ArrayList<>();
-		for (ClanDiary diary : diaries)
+		DiarySnapshot current = snapshot;
+		List<DiaryHeader> headers = new ArrayList<>(current.getHeaders());
+		DiaryHeader header = DiaryHeader.of(diary);
+		int index = headers.indexOf(current.getHeader(diary.getId()));
+		if (index >= 0)
 		{
-			if (diary.getCategory().equalsIgnoreCase(category))
+			headers.set(index, header);
+		}
+		else
+		{
+			headers.add(header);
+		}
+
+		Map<String, ClanDiary> loaded = new HashMap<>(current.getLoaded());
+		loaded.put(diary.getId(), diary);
+		snapshot = DiarySnapshot.of(headers, loaded);
+		saveDiary(diary.getId());
+
+		// The local copy may now differ from the server's
+		apiService.clearDiaryValidators();
+	}
+
+	/**
+	 * Load diaries that are listed but not loaded yet, and publish them in a new snapshot
+	 *
+	 * @return the snapshot holding them
+	 */
+	private synchronized DiarySnapshot load(Collection<String> ids)
+	{
+		DiarySnapshot current = snapshot;
+		Map<String, ClanDiary> added = new HashMap<>();
+		for (String id : ids)
+		{
+			if (current.getHeader(id) != null && current.getDiary(id) == null)
 			{
-				result.add(diary);
+				ClanDiary diary = storageService.loadDiary(id);
+				if (diary != null)
+				{
+					added.put(id, diary);
+				}
 			}
 		}
-		return result;
+
+		if (!added.isEmpty())
+		{
+			current = current.withLoaded(added);
+			snapshot = current;
+		}
+		return current;
+	}
+
+	/**
+	 * Get a private copy of a diary to edit, or null if there is no such diary
+	 */
+	private ClanDiary editableCopy(String diaryId)
+	{
+		ClanDiary diary = getDiaryById(diaryId);
+		return diary != null ? diary.copy() : null;
+	}
+
+	/**
+	 * Get the current diary set revision.
+	 * Changes whenever diaries are loaded, synced or edited.
+	 */
+	public int getRevision()
+	{
+		return revision;
+	}
+
+	/**
+	 * Get the header of every diary (unmodifiable)
+	 */
+	public List<DiaryHeader> getHeaders()
+	{
+		return snapshot.getHeaders();
+	}
+
+	/**
+	 * Get diary headers by category (unmodifiable)
+	 */
+	public List<DiaryHeader> getHeadersByCategory(String category)
+	{
+		return snapshot.getHeadersByCategory(category);
+	}
+
+	/**
+	 * Get a diary's header by ID
+	 */
+	public DiaryHeader getHeaderById(String id)
+	{
+		return snapshot.getHeader(id);
+	}
+
+	/**
+	 * Get a diary by ID only if its tiers and tasks are already loaded
+	 */
+	public ClanDiary getLoadedDiary(String id)
+	{
+		return snapshot.getDiary(id);
 	}
 
 	/**
-	 * Get active diaries only
+	 * Get active diaries only (unmodifiable), loading any that are not loaded yet
 	 */
 	public List<ClanDiary> getActiveDiaries()
 	{
-		List<ClanDiary> result = new ArrayList<>();
-		for (ClanDiary diary : diaries)
+		DiarySnapshot current = snapshot;
+		if (!current.isActiveLoaded())
 		{
-			if (diary.isActive())
-			{
-				result.add(diary);
-			}
+			current = loadActive();
 		}
-		return result;
+		return current.getActiveDiaries();
 	}
 
 	/**
-	 * Get diary by ID
+	 * Load the active diaries of the current snapshot; the set may have changed since it was read
+	 */
+	private synchronized DiarySnapshot loadActive()
+	{
+		List<String> ids = new ArrayList<>();
+		for (DiaryHeader header : snapshot.getActiveHeaders())
+		{
+			ids.add(header.getId());
+		}
+		return load(ids);
+	}
+
+	/**
+	 * Get diary by ID, loading its tiers and tasks from storage on first use
 	 */
 	public ClanDiary getDiaryById(String id)
 	{
-		return diaries.stream()
-			.filter(d -> d.getId().equals(id))
-			.findFirst()
-			.orElse(null);
+		DiarySnapshot current = snapshot;
+		ClanDiary diary = current.getDiary(id);
+		if (diary != null || current.getHeader(id) == null)
+		{
+			return diary;
+		}
+		return load(Collections.singletonList(id)).getDiary(id);
 	}
 
 	/**
-	 * Sync diaries from API to local storage
+	 * Sync diaries from API to local storage.
+	 * Fetches are conditional, so an unchanged diary set or MOTD costs no download.
 	 */
 	public void syncFromApi()
 	{
@@ -137,11 +289,11 @@ public class DiaryManager
 			return;
 		}
 
-		apiService.fetchDiaries().thenAccept(remoteDiaries -> {
+		// Only ask for changes since the last sync if its diaries are still cached
+		apiService.fetchDiaries(!snapshot.getHeaders().isEmpty()).thenAccept(remoteDiaries -> {
 			if (remoteDiaries != null && !remoteDiaries.isEmpty())
 			{
-				this.diaries = remoteDiaries;
-				saveDiaries(); // Cache locally
+				replaceDiaries(remoteDiaries);
 				log.info("Synced {} diaries from API", remoteDiaries.size());
 			}
 		}).exceptionally(ex -> {
@@ -150,7 +302,7 @@ public class DiaryManager
 		});
 
 		// Also sync MOTD
-		apiService.fetchMotd().thenAccept(remoteMot -> {
+		apiService.fetchMotd(!getMessageOfTheDay().isEmpty()).thenAccept(remoteMot -> {
 			if (remoteMot != null && !remoteMot.isEmpty())
 			{
 				this.messageOfTheDay = remoteMot;
@@ -163,14 +315,30 @@ public class DiaryManager
 		});
 	}
 
+	/**
+	 * Replace every diary with the ones fetched from the API
+	 */
+	private synchronized void replaceDiaries(List<ClanDiary> remoteDiaries)
+	{
+		List<DiaryHeader> remoteHeaders = new ArrayList<>(remoteDiaries.size());
+		Map<String, ClanDiary> remoteById = new HashMap<>(remoteDiaries.size() * 2);
+		for (ClanDiary diary : remoteDiaries)
+		{
+			remoteHeaders.add(DiaryHeader.of(diary));
+			remoteById.put(diary.getId(), diary);
+			dirtyDiaries.add(diary.getId());
+		}
+		this.snapshot = DiarySnapshot.of(remoteHeaders, remoteById);
+		saveDiaries(); // Cache locally; unchanged diaries are skipped by content hash
+	}
+
 	/**
 	 * Create a new diary
 	 */
-	public ClanDiary createDiary(String name, String category, String createdBy)
+	public synchronized ClanDiary createDiary(String name, String category, String createdBy)
 	{
 		ClanDiary diary = ClanDiary.create(name, category, createdBy);
-		diaries.add(diary);
-		saveDiaries(); // Save locally first
+		publish(diary.copy()); // Save locally first; the caller gets its own copy
 
 		// Sync to API if enabled
 		if (apiService.isConfigured())
@@ -189,29 +357,25 @@ public class DiaryManager
 	/**
 	 * Update an existing diary
 	 */
-	public boolean updateDiary(ClanDiary updatedDiary)
+	public synchronized boolean updateDiary(ClanDiary updatedDiary)
 	{
-		for (int i = 0; i < diaries.size(); i++)
+		if (getHeaderById(updatedDiary.getId()) != null)
 		{
-			if (diaries.get(i).getId().equals(updatedDiary.getId()))
-			{
-				updatedDiary.updateModified(updatedDiary.getLastModifiedBy());
-				diaries.set(i, updatedDiary);
-				saveDiaries(); // Save locally first
-
-				// Sync to API if enabled
-				if (apiService.isConfigured())
-				{
-					String rsn = permissionManager.getPlayerName();
-					apiService.updateDiary(updatedDiary, rsn).exceptionally(ex -> {
-						log.error("Failed to sync diary update to API: {}", updatedDiary.getName(), ex);
-						return null;
-					});
-				}
+			updatedDiary.updateModified(updatedDiary.getLastModifiedBy());
+			publish(updatedDiary.copy()); // Save locally first; the caller keeps its own copy
 
-				log.info("Updated diary: {}", updatedDiary.getName());
-				return true;
+			// Sync to API if enabled
+			if (apiService.isConfigured())
+			{
+				String rsn = permissionManager.getPlayerName();
+				apiService.updateDiary(updatedDiary, rsn).exceptionally(ex -> {
+					log.error("Failed to sync diary update to API: {}", updatedDiary.getName(), ex);
+					return null;
+				});
 			}
+
+			log.info("Updated diary: {}", updatedDiary.getName());
+			return true;
 		}
 		return false;
 	}
@@ -219,12 +383,16 @@ public class DiaryManager
 	/**
 	 * Delete a diary by ID
 	 */
-	public boolean deleteDiary(String diaryId)
+	public synchronized boolean deleteDiary(String diaryId)
 	{
-		boolean removed = diaries.removeIf(d -> d.getId().equals(diaryId));
+		DiarySnapshot current = snapshot;
+		List<DiaryHeader> remaining = new ArrayList<>(current.getHeaders());
+		boolean removed = remaining.removeIf(h -> h.getId().equals(diaryId));
 		if (removed)
 		{
+			snapshot = DiarySnapshot.of(remaining, current.getLoaded());
 			saveDiaries(); // Save locally first
+			apiService.clearDiaryValidators();
 
 			// Sync to API if enabled
 			if (apiService.isConfigured())
@@ -244,13 +412,13 @@ public class DiaryManager
 	/**
 	 * Add a tier to a diary
 	 */
-	public boolean addTier(String diaryId, DiaryTier tier)
+	public synchronized boolean addTier(String diaryId, DiaryTier tier)
 	{
-		ClanDiary diary = getDiaryById(diaryId);
+		ClanDiary diary = editableCopy(diaryId);
 		if (diary != null)
 		{
 			diary.addTier(tier);
-			saveDiaries();
+			publish(diary);
 			return true;
 		}
 		return false;
@@ -259,15 +427,15 @@ public class DiaryManager
 	/**
 	 * Remove a tier from a diary
 	 */
-	public boolean removeTier(String diaryId, String tierName)
+	public synchronized boolean removeTier(String diaryId, String tierName)
 	{
-		ClanDiary diary = getDiaryById(diaryId);
+		ClanDiary diary = editableCopy(diaryId);
 		if (diary != null)
 		{
 			boolean removed = diary.removeTier(tierName);
 			if (removed)
 			{
-				saveDiaries();
+				publish(diary);
 			}
 			return removed;
 		}
@@ -277,9 +445,9 @@ public class DiaryManager
 	/**
 	 * Add a task to a tier in a diary
 	 */
-	public boolean addTask(String diaryId, String tierName, DiaryTask task)
+	public synchronized boolean addTask(String diaryId, String tierName, DiaryTask task)
 	{
-		ClanDiary diary = getDiaryById(diaryId);
+		ClanDiary diary = editableCopy(diaryId);
 		if (diary != null)
 		{
 			DiaryTier tier = diary.getTierByName(tierName);
@@ -287,7 +455,7 @@ public class DiaryManager
 			{
 				tier.addTask(task);
 				diary.updateModified(diary.getLastModifiedBy());
-				saveDiaries();
+				publish(diary);
 				return true;
 			}
 		}
@@ -297,9 +465,9 @@ public class DiaryManager
 	/**
 	 * Remove a task from a diary
 	 */
-	public boolean removeTask(String diaryId, String tierName, String taskId)
+	public synchronized boolean removeTask(String diaryId, String tierName, String taskId)
 	{
-		ClanDiary diary = getDiaryById(diaryId);
+		ClanDiary diary = editableCopy(diaryId);
 		if (diary != null)
 		{
 			DiaryTier tier = diary.getTierByName(tierName);
@@ -309,7 +477,7 @@ public class DiaryManager
 				if (removed)
 				{
 					diary.updateModified(diary.getLastModifiedBy());
-					saveDiaries();
+					publish(diary);
 				}
 				return removed;
 			}
@@ -318,43 +486,29 @@ public class DiaryManager
 	}
 
 	/**
-	 * Get all unique categories
+	 * Get all unique categories, sorted (unmodifiable)
 	 */
 	public List<String> getAllCategories()
 	{
-		List<String> categories = new ArrayList<>();
-		for (ClanDiary diary : diaries)
-		{
-			if (!categories.contains(diary.getCategory()))
-			{
-				categories.add(diary.getCategory());
-			}
-		}
-		categories.sort(String::compareToIgnoreCase);
-		return categories;
+		return snapshot.getCategories();
 	}
 
 	/**
 	 * Import a diary (replaces if exists, adds if new)
 	 */
-	public boolean importDiary(ClanDiary importedDiary)
+	public synchronized boolean importDiary(ClanDiary importedDiary)
 	{
 		// Check if diary with same ID already exists
-		for (int i = 0; i < diaries.size(); i++)
+		if (getHeaderById(importedDiary.getId()) != null)
 		{
-			if (diaries.get(i).getId().equals(importedDiary.getId()))
-			{
-				// Replace existing diary
-				diaries.set(i, importedDiary);
-				saveDiaries();
-				log.info("Replaced existing diary: {}", importedDiary.getName());
-				return true;
-			}
+			// Replace existing diary
+			publish(importedDiary.copy());
+			log.info("Replaced existing diary: {}", importedDiary.getName());
+			return true;
 		}
 
 		// Add as new diary
-		diaries.add(importedDiary);
-		saveDiaries();
+		publish(importedDiary.copy());
 		log.info("Imported new diary: {}", importedDiary.getName());
 		return true;
 	}
@@ -370,10 +524,11 @@ public class DiaryManager
 	/**
 	 * Set the message of the day (admin only)
 	 */
-	public void setMessageOfTheDay(String message)
+	public synchronized void setMessageOfTheDay(String message)
 	{
 		this.messageOfTheDay = message != null ? message : "";
 		storageService.saveMotd(this.messageOfTheDay); // Save locally first
+		apiService.clearMotdValidators();
 
 		// Sync to API if enabled
 		if (apiService.isConfigured())
@@ -0,0 +1,219 @@
+package com.dadscape.manager;
+
+import com.dadscape.model.ClanDiary;
+import com.dadscape.model.DiaryHeader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of the diary set with its lookups precomputed, and the diaries whose
+ * tiers and tasks have been loaded so far.
+ * DiaryManager builds a new snapshot on every change, including each lazy load, and swaps
+ * it in, so readers on any thread get a consistent set with O(1) lookups and no per-call copies.
+ */
+final class DiarySnapshot
+{
+	static final DiarySnapshot EMPTY = of(Collections.emptyList(), Collections.emptyMap());
+
+	private final List<DiaryHeader> headers;
+	private final Map<String, DiaryHeader> headersById;
+	private final Map<String, List<DiaryHeader>> headersByCategory;
+	private final List<DiaryHeader> activeHeaders;
+	private final List<String> categories;
+
+	// Diaries whose tiers and tasks are loaded, by ID; only diaries that have a header
+	private final Map<String, ClanDiary> loaded;
+
+	// Whether every active diary is loaded, computed once per snapshot
+	private final boolean activeLoaded;
+
+	// Loaded active diaries, built on first request
+	private volatile List<ClanDiary> activeDiaries;
+
+	private DiarySnapshot(
+		List<DiaryHeader> headers,
+		Map<String, DiaryHeader> headersById,
+		Map<String, List<DiaryHeader>> headersByCategory,
+		List<DiaryHeader> activeHeaders,
+		List<String> categories,
+		Map<String, ClanDiary> loaded
+	)
+	{
+		this.headers = headers;
+		this.headersById = headersById;
+		this.headersByCategory = headersByCategory;
+		this.activeHeaders = activeHeaders;
+		this.categories = categories;
+		this.loaded = loaded;
+		this.activeLoaded = allLoaded(activeHeaders, loaded);
+	}
+
+	/**
+	 * Index the headers, in display order, with the loaded diaries that still have a header
+	 */
+	static DiarySnapshot of(List<DiaryHeader> headers, Map<String, ClanDiary> loaded)
+	{
+		Map<String, DiaryHeader> byId = new HashMap<>(headers.size() * 2);
+		Map<String, List<DiaryHeader>> byCategory = new HashMap<>();
+		List<DiaryHeader> active = new ArrayList<>();
+		Set<String> categories = new LinkedHashSet<>();
+
+		for (DiaryHeader header : headers)
+		{
+			byId.put(header.getId(), header);
+			byCategory.computeIfAbsent(categoryKey(header.getCategory()), k -> new ArrayList<>()).add(header);
+			if (header.isActive())
+			{
+				active.add(header);
+			}
+			categories.add(header.getCategory());
+		}
+
+		for (Map.Entry<String, List<DiaryHeader>> entry : byCategory.entrySet())
+		{
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+
+		List<String> sorted = new ArrayList<>(categories);
+		sorted.sort(String::compareToIgnoreCase);
+
+		Map<String, ClanDiary> loadedById = new HashMap<>(loaded.size() * 2);
+		for (ClanDiary diary : loaded.values())
+		{
+			if (byId.containsKey(diary.getId()))
+			{
+				loadedById.put(diary.getId(), diary);
+			}
+		}
+
+		return new DiarySnapshot(
+			Collections.unmodifiableList(new ArrayList<>(headers)),
+			byId,
+			byCategory,
+			Collections.unmodifiableList(active),
+			Collections.unmodifiableList(sorted),
+			Collections.unmodifiableMap(loadedById)
+		);
+	}
+
+	/**
+	 * Same headers with more diaries loaded
+	 */
+	DiarySnapshot withLoaded(Map<String, ClanDiary> added)
+	{
+		Map<String, ClanDiary> loadedById = new HashMap<>(loaded);
+		for (ClanDiary diary : added.values())
+		{
+			if (headersById.containsKey(diary.getId()))
+			{
+				loadedById.put(diary.getId(), diary);
+			}
+		}
+
+		return new DiarySnapshot(headers, headersById, headersByCategory, activeHeaders, categories,
+			Collections.unmodifiableMap(loadedById));
+	}
+
+	List<DiaryHeader> getHeaders()
+	{
+		return headers;
+	}
+
+	DiaryHeader getHeader(String id)
+	{
+		return headersById.get(id);
+	}
+
+	/**
+	 * Headers in a category, ignoring case
+	 */
+	List<DiaryHeader> getHeadersByCategory(String category)
+	{
+		return headersByCategory.getOrDefault(categoryKey(category), Collections.emptyList());
+	}
+
+	/**
+	 * Distinct categories, sorted ignoring case
+	 */
+	List<String> getCategories()
+	{
+		return categories;
+	}
+
+	List<DiaryHeader> getActiveHeaders()
+	{
+		return activeHeaders;
+	}
+
+	/**
+	 * Get a diary if its tiers and tasks are loaded
+	 */
+	ClanDiary getDiary(String id)
+	{
+		return loaded.get(id);
+	}
+
+	/**
+	 * Loaded diaries by ID (unmodifiable)
+	 */
+	Map<String, ClanDiary> getLoaded()
+	{
+		return loaded;
+	}
+
+	/**
+	 * Check if every active diary is loaded
+	 */
+	boolean isActiveLoaded()
+	{
+		return activeLoaded;
+	}
+
+	/**
+	 * Active diaries that are loaded, in display order.
+	 * The list is built once per snapshot.
+	 */
+	List<ClanDiary> getActiveDiaries()
+	{
+		List<ClanDiary> diaries = activeDiaries;
+		if (diaries == null)
+		{
+			diaries = new ArrayList<>(activeHeaders.size());
+			for (DiaryHeader header : activeHeaders)
+			{
+				ClanDiary diary = loaded.get(header.getId());
+				if (diary != null)
+				{
+					diaries.add(diary);
+				}
+			}
+			diaries = Collections.unmodifiableList(diaries);
+			activeDiaries = diaries;
+		}
+		return diaries;
+	}
+
+	private static boolean allLoaded(List<DiaryHeader> headers, Map<String, ClanDiary> loaded)
+	{
+		for (DiaryHeader header : headers)
+		{
+			if (!loaded.containsKey(header.getId()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String categoryKey(String category)
+	{
+		return category != null ? category.toLowerCase(Locale.ROOT) : "";
+	}
+}
@@ -1,9 +1,13 @@
 package com.dadscape.manager;
 
+import com.dadscape.model.BinaryCodec;
 import com.dadscape.model.ClanDiary;
+import com.dadscape.model.DiaryHeader;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.config.ConfigManager;
 
@@ -11,29 +15,49 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Handles persistence of clan diaries to ConfigManager and file system.
- * Supports both local storage and export/import functionality.
+ * Each diary is stored in config under its own key with the compact BinaryCodec, next to
+ * a content hash. A small JSON index holds every diary's header, so the diary list can be
+ * shown without decoding any diary bodies. Export/import uses JSON.
  */
 @Slf4j
 @Singleton
 public class DiaryStorageService
 {
 	private static final String CONFIG_GROUP = "dadscape";
-	private static final String DIARIES_KEY = "clanDiaries";
+	private static final String LEGACY_DIARIES_KEY = "clanDiaries";
+	private static final String INDEX_KEY = "diaryIndex";
+	private static final String DIARY_KEY_PREFIX = "diary_";
+	private static final String HASH_KEY_PREFIX = "diaryHash_";
 	private static final String MOTD_KEY = "messageOfTheDay";
 	private static final String EXPORT_DIR = ".runelite/dadscape/diaries";
 
 	private final ConfigManager configManager;
 	private final Gson gson;
 
+	private final Gson compactGson;
+
+	// Headers in the stored index, and the content hash of each stored diary as it is read
+	private List<DiaryHeader> storedHeaders = new ArrayList<>();
+	private final Map<String, String> storedHashes = new HashMap<>();
 	@Inject
 	public DiaryStorageService(ConfigManager configManager)
 	{
@@ -41,47 +65,322 @@ public class DiaryStorageService
 		this.gson = new GsonBuilder()
 			.setPrettyPrinting()
 			.create();
+		this.compactGson = new Gson();
 	}
 
 	/**
-	 * Load all diaries from ConfigManager
+	 * Load the header of every diary from the stored index, without reading any diary bodies
 	 */
-	public List<ClanDiary> loadDiaries()
+	public synchronized List<DiaryHeader> loadHeaders()
 	{
-		String json = configManager.getConfiguration(CONFIG_GROUP, DIARIES_KEY);
-		if (json == null || json.isEmpty())
+		storedHeaders = new ArrayList<>();
+		storedHashes.clear();
+
+		String index = configManager.getConfiguration(CONFIG_GROUP, INDEX_KEY);
+		List<DiaryHeader> headers = new ArrayList<>();
+		if (index != null && !index.isEmpty())
 		{
-			log.debug("No diaries found in config, returning empty list");
-			return new ArrayList<>();
+			try
+			{
+				readIndex(index, headers);
+			}
+			catch (Exception e)
+			{
+				log.error("Failed to read diary index from config", e);
+				return new ArrayList<>();
+			}
+			storedHeaders = new ArrayList<>(headers);
+		}
+
+		// The old single key is only removed once every diary in it was written, so finish
+		// a migration that failed part way
+		if (configManager.getConfiguration(CONFIG_GROUP, LEGACY_DIARIES_KEY) != null)
+		{
+			headers = migrateLegacyDiaries(headers);
+		}
+
+		log.debug("Loaded {} diary headers from config", headers.size());
+		return headers;
+	}
+
+	/**
+	 * Load a diary's tiers and tasks
+	 *
+	 * @return the diary, or null if it is not stored or cannot be read
+	 */
+	public synchronized ClanDiary loadDiary(String id)
+	{
+		String stored = configManager.getConfiguration(CONFIG_GROUP, DIARY_KEY_PREFIX + id);
+		if (stored == null || stored.isEmpty())
+		{
+			log.warn("Diary {} is listed in the index but not stored", id);
+			return null;
 		}
 
 		try
 		{
-			Type listType = new TypeToken<List<ClanDiary>>(){}.getType();
-			List<ClanDiary> diaries = gson.fromJson(json, listType);
-			return diaries != null ? diaries : new ArrayList<>();
+			return decode(stored);
 		}
 		catch (Exception e)
 		{
-			log.error("Failed to deserialize diaries from config", e);
-			return new ArrayList<>();
+			log.error("Failed to deserialize diary {} from config", id, e);
+			return null;
 		}
 	}
 
 	/**
-	 * Save all diaries to ConfigManager
+	 * Save diaries to ConfigManager.
+	 * Only loaded diaries listed as dirty (or never stored) are encoded, and a diary is only
+	 * rewritten when its content hash differs from the stored one. Diaries no longer listed
+	 * in the headers are removed.
+	 *
+	 * A diary that fails to write keeps its previous stored version, and a new one is left
+	 * out of the index until it is written.
+	 *
+	 * @param headers every diary, in display order
+	 * @param loaded  diaries whose tiers and tasks are in memory, by ID
 	 */
-	public void saveDiaries(List<ClanDiary> diaries)
+	public synchronized SaveResult saveDiaries(List<DiaryHeader> headers, Map<String, ClanDiary> loaded, Collection<String> dirtyIds)
 	{
+		boolean changed = false;
+		Set<String> failedIds = new HashSet<>();
+		Set<String> storedIds = new HashSet<>();
+		for (DiaryHeader header : storedHeaders)
+		{
+			storedIds.add(header.getId());
+		}
+
+		for (DiaryHeader header : headers)
+		{
+			String id = header.getId();
+			ClanDiary diary = loaded.get(id);
+			if (diary == null || (storedIds.contains(id) && !dirtyIds.contains(id)))
+			{
+				continue;
+			}
+
+			try
+			{
+				String encoded = encode(diary);
+				String hash = hash(encoded);
+				if (storedIds.contains(id) && hash.equals(storedHash(id)))
+				{
+					continue;
+				}
+
+				configManager.setConfiguration(CONFIG_GROUP, DIARY_KEY_PREFIX + id, encoded);
+				configManager.setConfiguration(CONFIG_GROUP, HASH_KEY_PREFIX + id, hash);
+				storedHashes.put(id, hash);
+				log.debug("Saved diary {} to config ({} chars)", diary.getName(), encoded.length());
+			}
+			catch (Exception e)
+			{
+				log.error("Failed to serialize diary {} to config", diary.getName(), e);
+				failedIds.add(id);
+			}
+			changed = true;
+		}
+
+		List<DiaryHeader> indexed = new ArrayList<>(headers);
+		indexed.removeIf(header -> failedIds.contains(header.getId()) && !storedIds.contains(header.getId()));
+
+		if (!indexed.equals(storedHeaders))
+		{
+			Set<String> ids = new HashSet<>();
+			for (DiaryHeader header : headers)
+			{
+				ids.add(header.getId());
+			}
+
+			for (String id : storedIds)
+			{
+				if (!ids.contains(id))
+				{
+					configManager.unsetConfiguration(CONFIG_GROUP, DIARY_KEY_PREFIX + id);
+					configManager.unsetConfiguration(CONFIG_GROUP, HASH_KEY_PREFIX + id);
+					storedHashes.remove(id);
+				}
+			}
+
+			writeIndex(indexed);
+			changed = true;
+		}
+
+		return new SaveResult(changed, failedIds);
+	}
+
+	/**
+	 * Stream the index, reading each header without building the whole document.
+	 * Unknown fields are skipped so newer indexes can still be read.
+	 */
+	private void readIndex(String index, List<DiaryHeader> headers) throws IOException
+	{
+		try (JsonReader reader = new JsonReader(new StringReader(index)))
+		{
+			reader.beginArray();
+			while (reader.hasNext())
+			{
+				String id = null;
+				String name = null;
+				String category = null;
+				boolean active = false;
+				int tierCount = 0;
+				int taskCount = 0;
+
+				reader.beginObject();
+				while (reader.hasNext())
+				{
+					switch (reader.nextName())
+					{
+						case "id":
+							id = reader.nextString();
+							break;
+						case "name":
+							name = reader.nextString();
+							break;
+						case "category":
+							category = reader.nextString();
+							break;
+						case "active":
+							active = reader.nextBoolean();
+							break;
+						case "tierCount":
+							tierCount = reader.nextInt();
+							break;
+						case "taskCount":
+							taskCount = reader.nextInt();
+							break;
+						default:
+							reader.skipValue();
+							break;
+					}
+				}
+				reader.endObject();
+
+				if (id != null)
+				{
+					headers.add(new DiaryHeader(id, name, category, active, tierCount, taskCount));
+				}
+			}
+			reader.endArray();
+		}
+	}
+
+	private void writeIndex(List<DiaryHeader> headers)
+	{
+		configManager.setConfiguration(CONFIG_GROUP, INDEX_KEY, compactGson.toJson(headers));
+		storedHeaders = new ArrayList<>(headers);
+	}
+
+	private String storedHash(String id)
+	{
+		return storedHashes.computeIfAbsent(id, k -> configManager.getConfiguration(CONFIG_GROUP, HASH_KEY_PREFIX + k));
+	}
+
+	/**
+	 * Move diaries out of the old single key (clanDiaries) into per-diary keys.
+	 * Diaries already in the index are kept as they are. The old key is removed only
+	 * once every diary in it has been written.
+	 *
+	 * @param headers headers from the index
+	 * @return the headers now in the index
+	 */
+	private List<DiaryHeader> migrateLegacyDiaries(List<DiaryHeader> headers)
+	{
+		String stored = configManager.getConfiguration(CONFIG_GROUP, LEGACY_DIARIES_KEY);
+		if (stored == null || stored.isEmpty())
+		{
+			configManager.unsetConfiguration(CONFIG_GROUP, LEGACY_DIARIES_KEY);
+			return headers;
+		}
+
+		List<ClanDiary> diaries;
 		try
 		{
-			String json = gson.toJson(diaries);
-			configManager.setConfiguration(CONFIG_GROUP, DIARIES_KEY, json);
-			log.debug("Saved {} diaries to config", diaries.size());
+			if (BinaryCodec.isEncoded(stored))
+			{
+				diaries = BinaryCodec.decodeDiaries(stored);
+			}
+			else
+			{
+				Type listType = new TypeToken<List<ClanDiary>>(){}.getType();
+				diaries = gson.fromJson(stored, listType);
+			}
 		}
 		catch (Exception e)
 		{
-			log.error("Failed to serialize diaries to config", e);
+			log.error("Failed to deserialize diaries from config", e);
+			return headers;
+		}
+
+		if (diaries == null)
+		{
+			return headers;
+		}
+
+		Set<String> indexedIds = new HashSet<>();
+		for (DiaryHeader header : headers)
+		{
+			indexedIds.add(header.getId());
+		}
+
+		List<DiaryHeader> merged = new ArrayList<>(headers);
+		Map<String, ClanDiary> loaded = new HashMap<>();
+		for (ClanDiary diary : diaries)
+		{
+			if (indexedIds.add(diary.getId()))
+			{
+				merged.add(DiaryHeader.of(diary));
+				loaded.put(diary.getId(), diary);
+			}
+		}
+
+		SaveResult result = saveDiaries(merged, loaded, Collections.emptySet());
+		if (!result.getFailedIds().isEmpty())
+		{
+			log.warn("Failed to migrate {} diaries, keeping the old storage until they are written", result.getFailedIds().size());
+			return new ArrayList<>(storedHeaders);
+		}
+
+		configManager.unsetConfiguration(CONFIG_GROUP, LEGACY_DIARIES_KEY);
+		log.info("Migrated {} diaries to per-diary storage", loaded.size());
+		return merged;
+	}
+
+	private String encode(ClanDiary diary)
+	{
+		return BinaryCodec.encodeDiaries(Collections.singletonList(diary));
+	}
+
+	private ClanDiary decode(String stored)
+	{
+		List<ClanDiary> decoded = BinaryCodec.decodeDiaries(stored);
+		if (decoded.size() != 1)
+		{
+			throw new IllegalArgumentException("Expected one diary but found " + decoded.size());
+		}
+		return decoded.get(0);
+	}
+
+	/**
+	 * SHA-256 of the stored text, hex encoded
+	 */
+	private static String hash(String stored)
+	{
+		try
+		{
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(stored.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest)
+			{
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			// Every JVM is required to provide SHA-256
+			throw new IllegalStateException(e);
 		}
 	}
 
@@ -221,4 +520,17 @@ public class DiaryStorageService
 			log.error("Failed to save MOTD to config", e);
 		}
 	}
+
+	/**
+	 * Outcome of a save
+	 */
+	@Value
+	public static class SaveResult
+	{
+		// Whether anything differed from what was stored
+		boolean changed;
+
+		// Diaries that could not be written and are still stored in their previous version, if any
+		Set<String> failedIds;
+	}
 }
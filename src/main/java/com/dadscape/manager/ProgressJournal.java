@@ -0,0 +1,257 @@
+package com.dadscape.manager;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only binary journal of task progress updates.
+ * Each update costs one small record; records are buffered and written with a single
+ * fsync per tick batch, so a crash loses at most the batch being written. The first
+ * update of a task in a journal writes a definition record mapping a small reference
+ * number to its (player, diary, task) ids, and later updates only carry the reference.
+ * Records hold absolute values rather than deltas, so replaying a record that was
+ * already folded into the snapshot is harmless.
+ * Not thread-safe; ProgressStore serializes access.
+ */
+@Slf4j
+class ProgressJournal
+{
+	private static final int MAGIC = 0x44534A31; // "DSJ1"
+	private static final int HEADER_SIZE = 4;
+
+	private static final byte TASK_DEF = 1;
+	private static final byte TASK_PROGRESS = 2;
+
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	private final File file;
+	private FileChannel channel;
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	// Reference numbers of tasks defined in the current journal
+	private final Map<TaskRef, Integer> refs = new HashMap<>();
+
+	ProgressJournal(File file)
+	{
+		this.file = file;
+	}
+
+	/**
+	 * Open the journal and read back every update it holds.
+	 * A torn record at the tail (from a crash mid-write) is discarded.
+	 */
+	List<Entry> open() throws IOException
+	{
+		File dir = file.getParentFile();
+		if (!dir.exists() && !dir.mkdirs())
+		{
+			throw new IOException("Unable to create " + dir);
+		}
+
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		List<Entry> entries = new ArrayList<>();
+		if (channel.size() < HEADER_SIZE)
+		{
+			reset();
+			return entries;
+		}
+
+		ByteBuffer contents = ByteBuffer.allocate((int) channel.size());
+		while (contents.hasRemaining() && channel.read(contents, contents.position()) > 0)
+		{
+			// Keep reading until the whole file is buffered
+		}
+		contents.flip();
+
+		if (contents.getInt() != MAGIC)
+		{
+			log.warn("Ignoring progress journal {} with unknown format", file);
+			reset();
+			return entries;
+		}
+
+		Map<Integer, TaskRef> defined = new HashMap<>();
+		int valid = contents.position();
+		try
+		{
+			while (contents.hasRemaining())
+			{
+				byte type = contents.get();
+				int ref = contents.getInt();
+				if (type == TASK_DEF)
+				{
+					TaskRef task = new TaskRef(readString(contents), readString(contents), readString(contents));
+					defined.put(ref, task);
+					refs.put(task, ref);
+				}
+				else if (type == TASK_PROGRESS)
+				{
+					int value = contents.getInt();
+					boolean completed = contents.get() != 0;
+					long timestamp = contents.getLong();
+
+					TaskRef task = defined.get(ref);
+					if (task != null)
+					{
+						entries.add(new Entry(task.getRsn(), task.getDiaryId(), task.getTaskId(), value, completed, timestamp));
+					}
+				}
+				else
+				{
+					log.warn("Unknown record type {} in progress journal, ignoring the rest", type);
+					break;
+				}
+				valid = contents.position();
+			}
+		}
+		catch (BufferUnderflowException e)
+		{
+			log.debug("Discarding torn record at the end of the progress journal");
+		}
+
+		// Continue appending after the last complete record
+		channel.truncate(valid);
+		channel.position(valid);
+
+		log.debug("Replayed {} progress journal entries", entries.size());
+		return entries;
+	}
+
+	/**
+	 * Buffer a task's progress
+	 */
+	void append(String rsn, String diaryId, String taskId, int value, boolean completed, long timestamp)
+	{
+		TaskRef task = new TaskRef(rsn, diaryId, taskId);
+		Integer ref = refs.get(task);
+		if (ref == null)
+		{
+			ref = refs.size();
+			refs.put(task, ref);
+
+			byte[] rsnBytes = rsn.getBytes(StandardCharsets.UTF_8);
+			byte[] diaryBytes = diaryId.getBytes(StandardCharsets.UTF_8);
+			byte[] taskBytes = taskId.getBytes(StandardCharsets.UTF_8);
+			ensureCapacity(1 + 4 + 6 + rsnBytes.length + diaryBytes.length + taskBytes.length);
+			buffer.put(TASK_DEF).putInt(ref);
+			writeBytes(rsnBytes);
+			writeBytes(diaryBytes);
+			writeBytes(taskBytes);
+		}
+
+		ensureCapacity(1 + 4 + 4 + 1 + 8);
+		buffer.put(TASK_PROGRESS)
+			.putInt(ref)
+			.putInt(value)
+			.put((byte) (completed ? 1 : 0))
+			.putLong(timestamp);
+	}
+
+	/**
+	 * Write buffered records and force them to disk
+	 */
+	void sync() throws IOException
+	{
+		if (channel == null || buffer.position() == 0)
+		{
+			return;
+		}
+
+		buffer.flip();
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+		buffer.clear();
+		channel.force(false);
+	}
+
+	/**
+	 * Empty the journal once its updates are folded into the snapshot
+	 */
+	void reset() throws IOException
+	{
+		buffer.clear();
+		refs.clear();
+
+		if (channel == null)
+		{
+			return;
+		}
+
+		channel.truncate(0);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC);
+		header.flip();
+		channel.write(header, 0);
+		channel.position(HEADER_SIZE);
+		channel.force(false);
+	}
+
+	void close() throws IOException
+	{
+		if (channel != null)
+		{
+			sync();
+			channel.close();
+			channel = null;
+		}
+	}
+
+	private void ensureCapacity(int bytes)
+	{
+		if (buffer.remaining() < bytes)
+		{
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+			buffer.flip();
+			larger.put(buffer);
+			buffer = larger;
+		}
+	}
+
+	private void writeBytes(byte[] bytes)
+	{
+		buffer.putShort((short) bytes.length).put(bytes);
+	}
+
+	private static String readString(ByteBuffer contents)
+	{
+		byte[] bytes = new byte[contents.getShort() & 0xFFFF];
+		contents.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Value
+	private static class TaskRef
+	{
+		String rsn;
+		String diaryId;
+		String taskId;
+	}
+
+	/**
+	 * One replayed task update
+	 */
+	@Value
+	static class Entry
+	{
+		String rsn;
+		String diaryId;
+		String taskId;
+		int value;
+		boolean completed;
+		long timestamp;
+	}
+}
@@ -0,0 +1,502 @@
+package com.dadscape.manager;
+
+import com.dadscape.model.BinaryCodec;
+import com.dadscape.model.ClanDiary;
+import com.dadscape.model.TaskSlots;
+import com.dadscape.model.UserProgress;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+import net.runelite.client.config.ConfigManager;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Caches user progress and persists it write-behind.
+ * Each tracked task update is appended to a binary journal, synced once per tick batch.
+ * The config entries are the snapshot: when TrackingPipeline compacts, dirty progress is
+ * written to config and the journal is emptied. Loading replays the journal over the
+ * snapshot, so a crash loses at most one batch. Snapshots live in the RS profile, so each
+ * profile has its own journal file and only the active profile's journal is replayed.
+ * Each (rsn, diary) pair is stored under its own key, so a snapshot write only carries
+ * that player's progress for that diary.
+ * Snapshots are written with BinaryCodec; older JSON snapshots are still read.
+ * UserProgress objects are guarded by this store's monitor: they are only changed inside
+ * update(), and other threads read them through read() or copy().
+ */
+@Slf4j
+@Singleton
+public class ProgressStore
+{
+	private static final String CONFIG_GROUP = "dadscape";
+	private static final String PROGRESS_KEY_PREFIX = "progress_";
+
+	private static final File JOURNAL_DIR = new File(RuneLite.RUNELITE_DIR, "dadscape");
+
+	private static final Type PROGRESS_MAP_TYPE = new TypeToken<Map<String, UserProgress>>(){}.getType();
+
+	private final ConfigManager configManager;
+	private final DiaryManager diaryManager;
+	private final Gson gson;
+	private final File journalDir;
+
+	// In-memory cache of user progress
+	private final Map<String, UserProgress> progressCache;
+
+	// Cache keys of progress changed since the last flush
+	private final Set<String> dirty;
+
+	// Journal of task updates since the last snapshot; null if it could not be opened
+	private ProgressJournal journal;
+	private boolean journalOpened;
+
+	// RS profile the open journal belongs to; null when no profile is active
+	private String journalProfile;
+
+	// Replayed journal updates per cache key, applied when that progress is first loaded
+	private final Map<String, List<ProgressJournal.Entry>> replayed = new HashMap<>();
+
+	// Task slot layout per diary ID, shared by the progress of every user; built on first use
+	private Map<String, TaskSlots> layouts;
+	private int layoutRevision = -1;
+
+	@Inject
+	public ProgressStore(
+		ConfigManager configManager,
+		DiaryManager diaryManager,
+		Gson gson
+	)
+	{
+		this(configManager, diaryManager, gson, JOURNAL_DIR);
+	}
+
+	ProgressStore(
+		ConfigManager configManager,
+		DiaryManager diaryManager,
+		Gson gson,
+		File journalDir
+	)
+	{
+		this.configManager = configManager;
+		this.diaryManager = diaryManager;
+		this.gson = gson;
+		this.journalDir = journalDir;
+		this.progressCache = new ConcurrentHashMap<>();
+		this.dirty = new LinkedHashSet<>();
+		this.layouts = new HashMap<>();
+	}
+
+	/**
+	 * Apply a change to a user's progress while holding the store's lock
+	 */
+	public synchronized void update(String rsn, String diaryId, Consumer<UserProgress> change)
+	{
+		change.accept(load(rsn, diaryId));
+	}
+
+	/**
+	 * Read a value from a user's progress while holding the store's lock
+	 */
+	public synchronized <T> T read(String rsn, String diaryId, Function<UserProgress, T> reader)
+	{
+		return reader.apply(load(rsn, diaryId));
+	}
+
+	/**
+	 * Get a copy of a user's progress that is safe to keep and read on any thread
+	 */
+	public synchronized UserProgress copy(String rsn, String diaryId)
+	{
+		return load(rsn, diaryId).copy();
+	}
+
+	/**
+	 * Load progress for a user and diary; callers must hold the lock
+	 */
+	private UserProgress load(String rsn, String diaryId)
+	{
+		refreshLayouts();
+		openJournal();
+
+		String cacheKey = cacheKey(rsn, diaryId);
+
+		// Check cache first
+		UserProgress cached = progressCache.get(cacheKey);
+		if (cached != null)
+		{
+			// The diary may have been loaded since this progress was
+			bind(cached);
+			return cached;
+		}
+
+		// Load from config
+		try
+		{
+			UserProgress progress = readProgress(rsn, diaryId);
+			if (progress == null)
+			{
+				progress = migrateLegacyProgress(rsn, diaryId);
+			}
+
+			if (progress != null)
+			{
+				replay(cacheKey, progress);
+				bind(progress);
+				progressCache.put(cacheKey, progress);
+				return progress;
+			}
+		}
+		catch (Exception e)
+		{
+			log.error("Failed to load progress for {} on diary {}", rsn, diaryId, e);
+		}
+
+		// Create new progress
+		UserProgress progress = UserProgress.create(rsn, diaryId);
+		replay(cacheKey, progress);
+		bind(progress);
+		progressCache.put(cacheKey, progress);
+		return progress;
+	}
+
+	/**
+	 * Journal a task's updated progress and mark the progress dirty
+	 */
+	public synchronized void record(UserProgress progress, String taskId)
+	{
+		if (journal != null)
+		{
+			journal.append(
+				progress.getRsn(),
+				progress.getDiaryId(),
+				taskId,
+				progress.getTaskProgress(taskId),
+				progress.isTaskCompleted(taskId),
+				System.currentTimeMillis()
+			);
+		}
+		markDirty(progress);
+	}
+
+	/**
+	 * Force journaled updates to disk
+	 */
+	public synchronized void sync()
+	{
+		if (journal == null)
+		{
+			return;
+		}
+
+		try
+		{
+			journal.sync();
+		}
+		catch (IOException e)
+		{
+			log.error("Failed to write progress journal", e);
+		}
+	}
+
+	/**
+	 * Mark progress as changed so it is written on the next flush
+	 */
+	public synchronized void markDirty(UserProgress progress)
+	{
+		String cacheKey = cacheKey(progress.getRsn(), progress.getDiaryId());
+		progressCache.put(cacheKey, progress);
+		dirty.add(cacheKey);
+	}
+
+	/**
+	 * Write all dirty progress to config and empty the journal
+	 */
+	public synchronized void flush()
+	{
+		// Snapshots can only be written into an active profile; keep everything until there is one
+		openJournal();
+		if (journalProfile == null)
+		{
+			return;
+		}
+
+		// Fold replayed updates for progress nobody loaded this session, so they survive the reset
+		for (List<ProgressJournal.Entry> entries : new ArrayList<>(replayed.values()))
+		{
+			ProgressJournal.Entry first = entries.get(0);
+			load(first.getRsn(), first.getDiaryId());
+		}
+
+		if (dirty.isEmpty())
+		{
+			return;
+		}
+
+		int written = 0;
+		for (Iterator<String> it = dirty.iterator(); it.hasNext(); )
+		{
+			UserProgress progress = progressCache.get(it.next());
+			if (progress == null)
+			{
+				it.remove();
+				continue;
+			}
+
+			try
+			{
+				configManager.setRSProfileConfiguration(CONFIG_GROUP, progressKey(progress.getRsn(), progress.getDiaryId()), BinaryCodec.encodeProgress(progress));
+				it.remove();
+				written++;
+			}
+			catch (Exception e)
+			{
+				// Stays dirty, so it is retried on the next flush
+				log.error("Failed to save progress for {} on diary {}", progress.getRsn(), progress.getDiaryId(), e);
+			}
+		}
+
+		log.debug("Flushed {} progress entries", written);
+
+		// Keep the journal until every dirty entry is in the snapshot; replaying it is idempotent
+		if (journal != null && dirty.isEmpty())
+		{
+			try
+			{
+				journal.reset();
+			}
+			catch (IOException e)
+			{
+				log.error("Failed to compact progress journal", e);
+			}
+		}
+	}
+
+	/**
+	 * Flush pending progress and clear the cache (call when logging out)
+	 */
+	public synchronized void clear()
+	{
+		flush();
+		progressCache.clear();
+	}
+
+	/**
+	 * Flush and close the journal (call when shutting down)
+	 */
+	public synchronized void close()
+	{
+		flush();
+		closeJournal();
+	}
+
+	/**
+	 * Open the active RS profile's journal and stash its updates for replay.
+	 * When the profile changes, the previous journal is closed without being emptied, so
+	 * its updates are replayed the next time that profile is active.
+	 */
+	private void openJournal()
+	{
+		String profile = configManager.getRSProfileKey();
+		if (journalOpened && Objects.equals(profile, journalProfile))
+		{
+			return;
+		}
+
+		closeJournal();
+		journalOpened = true;
+		journalProfile = profile;
+		if (profile == null)
+		{
+			return;
+		}
+
+		File file = new File(journalDir, journalFileName(profile));
+		ProgressJournal opened = new ProgressJournal(file);
+		try
+		{
+			for (ProgressJournal.Entry entry : opened.open())
+			{
+				replayed.computeIfAbsent(cacheKey(entry.getRsn(), entry.getDiaryId()), k -> new ArrayList<>()).add(entry);
+			}
+			journal = opened;
+		}
+		catch (IOException e)
+		{
+			log.error("Failed to open progress journal {}, progress is only saved on flush", file, e);
+		}
+	}
+
+	/**
+	 * Write out and close the current journal, dropping updates that were not replayed yet
+	 */
+	private void closeJournal()
+	{
+		if (journal != null)
+		{
+			try
+			{
+				journal.close();
+			}
+			catch (IOException e)
+			{
+				log.error("Failed to close progress journal", e);
+			}
+			journal = null;
+		}
+		replayed.clear();
+		journalOpened = false;
+		journalProfile = null;
+	}
+
+	/**
+	 * Apply journaled updates newer than the snapshot
+	 */
+	private void replay(String cacheKey, UserProgress progress)
+	{
+		List<ProgressJournal.Entry> entries = replayed.remove(cacheKey);
+		if (entries == null)
+		{
+			return;
+		}
+
+		for (ProgressJournal.Entry entry : entries)
+		{
+			progress.updateTaskProgress(entry.getTaskId(), entry.getValue());
+			if (entry.isCompleted() && !progress.isTaskCompleted(entry.getTaskId()))
+			{
+				progress.completeTask(entry.getTaskId());
+			}
+		}
+
+		dirty.add(cacheKey);
+		log.debug("Replayed {} journaled updates for {} on diary {}", entries.size(), progress.getRsn(), progress.getDiaryId());
+	}
+
+	/**
+	 * Drop task slot layouts when the diaries changed, and re-index cached progress onto new ones.
+	 * This is also where completion counters are reconciled after a diary edit.
+	 */
+	private void refreshLayouts()
+	{
+		int revision = diaryManager.getRevision();
+		if (revision == layoutRevision)
+		{
+			return;
+		}
+
+		layouts = new HashMap<>();
+		layoutRevision = revision;
+
+		for (UserProgress progress : progressCache.values())
+		{
+			bind(progress);
+		}
+	}
+
+	/**
+	 * Bind progress to its diary's slot layout, built on first use, and drop whatever is left
+	 * unbound: those tasks were deleted from the diary. Progress on a diary whose tasks are
+	 * not loaded yet stays unbound until they are, so listing diaries with their completion
+	 * does not load every diary.
+	 */
+	private void bind(UserProgress progress)
+	{
+		String diaryId = progress.getDiaryId();
+		TaskSlots layout = layouts.get(diaryId);
+		if (layout == null)
+		{
+			ClanDiary diary = diaryManager.getLoadedDiary(diaryId);
+			if (diary == null)
+			{
+				return;
+			}
+			layout = TaskSlots.of(diary);
+			layouts.put(diaryId, layout);
+		}
+		progress.bind(layout);
+
+		if (progress.dropUnbound())
+		{
+			dirty.add(cacheKey(progress.getRsn(), diaryId));
+		}
+	}
+
+	private UserProgress readProgress(String rsn, String diaryId)
+	{
+		String stored = configManager.getRSProfileConfiguration(CONFIG_GROUP, progressKey(rsn, diaryId));
+		if (stored == null || stored.isEmpty())
+		{
+			return null;
+		}
+
+		// Older versions stored JSON; it is rewritten in the binary format on the next flush
+		return BinaryCodec.isEncoded(stored) ? BinaryCodec.decodeProgress(stored) : gson.fromJson(stored, UserProgress.class);
+	}
+
+	/**
+	 * Move a user's progress out of the old shared per-diary map (progress_<diaryId>)
+	 * into its own key. The old key is removed once every user has been migrated.
+	 */
+	private UserProgress migrateLegacyProgress(String rsn, String diaryId)
+	{
+		String legacyKey = PROGRESS_KEY_PREFIX + diaryId;
+		String json = configManager.getRSProfileConfiguration(CONFIG_GROUP, legacyKey);
+		if (json == null || json.isEmpty())
+		{
+			return null;
+		}
+
+		Map<String, UserProgress> allProgress = gson.fromJson(json, PROGRESS_MAP_TYPE);
+		if (allProgress == null || !allProgress.containsKey(rsn))
+		{
+			return null;
+		}
+
+		UserProgress progress = allProgress.remove(rsn);
+		configManager.setRSProfileConfiguration(CONFIG_GROUP, progressKey(rsn, diaryId), BinaryCodec.encodeProgress(progress));
+
+		if (allProgress.isEmpty())
+		{
+			configManager.unsetRSProfileConfiguration(CONFIG_GROUP, legacyKey);
+		}
+		else
+		{
+			configManager.setRSProfileConfiguration(CONFIG_GROUP, legacyKey, gson.toJson(allProgress));
+		}
+
+		log.info("Migrated progress for {} on diary {} to per-player storage", rsn, diaryId);
+		return progress;
+	}
+
+	private static String journalFileName(String profile)
+	{
+		return "progress-" + profile.replaceAll("[^A-Za-z0-9._-]", "_") + ".journal";
+	}
+
+	private static String progressKey(String rsn, String diaryId)
+	{
+		return PROGRESS_KEY_PREFIX + diaryId + "_" + rsn.toLowerCase(Locale.ROOT).replace(' ', '_');
+	}
+
+	private static String cacheKey(String rsn, String diaryId)
+	{
+		return rsn + "_" + diaryId;
+	}
+}
@@ -1,236 +1,172 @@
 package com.dadscape.manager;
 
-import com.dadscape.model.ClanDiary;
+import com.dadscape.DadScapeConfig;
+import com.dadscape.model.DiaryHeader;
 import com.dadscape.model.DiaryTask;
-import com.dadscape.model.DiaryTier;
-import com.dadscape.model.TaskType;
 import com.dadscape.model.UserProgress;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.dadscape.tracker.ProgressSink;
+import com.dadscape.tracker.TaskCompiler;
+import com.dadscape.tracker.TaskHandlerRegistry;
+import com.dadscape.tracker.TickBatch;
+import com.dadscape.tracker.TrackedTask;
+import com.dadscape.tracker.TrackerEvent;
+import com.dadscape.tracker.VarTaskHandler;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
-import net.runelite.client.config.ConfigManager;
+import net.runelite.client.callback.ClientThread;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.lang.reflect.Type;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
- * Tracks user progress on diary tasks and handles auto-completion
+ * Tracks user progress on diary tasks and handles auto-completion.
+ * Event handlers run on the TrackingPipeline worker, never on the client thread.
  */
 @Slf4j
 @Singleton
 public class TaskTracker
 {
-	private static final String CONFIG_GROUP = "dadscape";
-	private static final String PROGRESS_KEY_PREFIX = "progress_";
-
-	private final ConfigManager configManager;
+	private final ProgressStore progressStore;
 	private final DiaryManager diaryManager;
 	private final Client client;
-	private final Gson gson;
+	private final ClientThread clientThread;
 
-	// In-memory cache of user progress
-	private final Map<String, UserProgress> progressCache;
+	// Per task type handlers, rebuilt when the diary revision changes
+	private final TaskHandlerRegistry handlerRegistry;
+	private volatile int indexedRevision = -1;
 
 	@Inject
-	public TaskTracker(ConfigManager configManager, DiaryManager diaryManager, Client client, Gson gson)
+	public TaskTracker(ProgressStore progressStore, DiaryManager diaryManager, Client client, ClientThread clientThread, DadScapeConfig config)
 	{
-		this.configManager = configManager;
+		this.progressStore = progressStore;
 		this.diaryManager = diaryManager;
 		this.client = client;
-		this.gson = gson;
-		this.progressCache = new HashMap<>();
+		this.clientThread = clientThread;
+		this.handlerRegistry = new TaskHandlerRegistry(config::chatPatternBudget);
 	}
 
 	/**
-	 * Load progress for a user and diary
+	 * Get a copy of a user's progress for display; tracking keeps changing the original
 	 */
 	public UserProgress loadProgress(String rsn, String diaryId)
 	{
-		String key = PROGRESS_KEY_PREFIX + diaryId;
-		String cacheKey = rsn + "_" + diaryId;
-
-		// Check cache first
-		if (progressCache.containsKey(cacheKey))
-		{
-			return progressCache.get(cacheKey);
-		}
-
-		// Load from config
-		try
-		{
-			String json = configManager.getRSProfileConfiguration(CONFIG_GROUP, key);
-			if (json != null && !json.isEmpty())
-			{
-				Type mapType = new TypeToken<Map<String, UserProgress>>(){}.getType();
-				Map<String, UserProgress> allProgress = gson.fromJson(json, mapType);
-
-				if (allProgress != null && allProgress.containsKey(rsn))
-				{
-					UserProgress progress = allProgress.get(rsn);
-					progressCache.put(cacheKey, progress);
-					return progress;
-				}
-			}
-		}
-		catch (Exception e)
-		{
-			log.error("Failed to load progress for {} on diary {}", rsn, diaryId, e);
-		}
-
-		// Create new progress
-		UserProgress progress = UserProgress.create(rsn, diaryId);
-		progressCache.put(cacheKey, progress);
-		return progress;
+		return progressStore.copy(rsn, diaryId);
 	}
 
 	/**
-	 * Save progress for a user
+	 * Apply everything the player did in one game tick
 	 */
-	public void saveProgress(UserProgress progress)
+	public void onTickBatch(TickBatch batch)
 	{
-		String key = PROGRESS_KEY_PREFIX + progress.getDiaryId();
-		String cacheKey = progress.getRsn() + "_" + progress.getDiaryId();
+		refreshIndexes();
 
-		try
+		String rsn = batch.getRsn();
+		ProgressSink sink = new ProgressSink()
 		{
-			// Load all progress for this diary
-			Map<String, UserProgress> allProgress = new HashMap<>();
-
-			String json = configManager.getRSProfileConfiguration(CONFIG_GROUP, key);
-			if (json != null && !json.isEmpty())
+			@Override
+			public void advance(TrackedTask tracked, int amount)
 			{
-				Type mapType = new TypeToken<Map<String, UserProgress>>(){}.getType();
-				Map<String, UserProgress> loaded = gson.fromJson(json, mapType);
-				if (loaded != null)
-				{
-					allProgress = loaded;
-				}
+				progressStore.update(rsn, tracked.getDiaryId(), progress -> {
+					progress.incrementTaskProgress(tracked.getTask().getId(), amount);
+					record(rsn, progress, tracked);
+				});
 			}
 
-			// Update this user's progress
-			allProgress.put(progress.getRsn(), progress);
-
-			// Save back to config
-			String updatedJson = gson.toJson(allProgress);
-			configManager.setRSProfileConfiguration(CONFIG_GROUP, key, updatedJson);
+			@Override
+			public void setProgress(TrackedTask tracked, int value)
+			{
+				progressStore.update(rsn, tracked.getDiaryId(), progress -> {
+					// Completed tasks keep the progress that completed them
+					if (progress.isTaskCompleted(tracked.getTask().getId()))
+					{
+						return;
+					}
 
-			// Update cache
-			progressCache.put(cacheKey, progress);
+					progress.updateTaskProgress(tracked.getTask().getId(), value);
+					record(rsn, progress, tracked);
+				});
+			}
+		};
 
-			log.debug("Saved progress for {} on diary {}", progress.getRsn(), progress.getDiaryId());
-		}
-		catch (Exception e)
+		for (TrackerEvent event : batch.getEvents())
 		{
-			log.error("Failed to save progress", e);
+			handlerRegistry.dispatch(event, sink);
 		}
 	}
 
 	/**
-	 * Handle chat message event for tracking custom/consumable tasks
+	 * Check if any active task is tracked through an event class.
+	 * Safe to call from the client thread to skip building events nobody consumes.
 	 */
-	public void onChatMessage(String rsn, String chatMessage)
+	public boolean isTracking(Class<? extends TrackerEvent> eventType)
 	{
-		// Check all active diaries for CUSTOM tasks with chat patterns
-		for (ClanDiary diary : diaryManager.getActiveDiaries())
-		{
-			UserProgress progress = loadProgress(rsn, diary.getId());
+		// Until the worker rebuilds for a new revision, assume everything is tracked
+		return indexedRevision != diaryManager.getRevision() || handlerRegistry.isTracking(eventType);
+	}
 
-			for (DiaryTier tier : diary.getTiers())
-			{
-				for (DiaryTask task : tier.getTasks())
-				{
-					// Check for CUSTOM tasks with chat pattern tracking
-					if (task.getType() == TaskType.CUSTOM)
-					{
-						String chatPattern = task.getRequirement("chatPattern");
-						String requiredCount = task.getRequirement("count");
+	/**
+	 * Check if a QUEST or MINIGAME task watches a var.
+	 * Safe to call from the client thread; every var counts as watched until the index is built.
+	 */
+	public boolean isWatchingVar(boolean varbit, int id)
+	{
+		return indexedRevision != diaryManager.getRevision() || handlerRegistry.isWatchingVar(varbit, id);
+	}
 
-						if (chatPattern != null && requiredCount != null)
-						{
-							// Check if chat message contains the pattern (case-insensitive)
-							if (chatMessage.toLowerCase().contains(chatPattern.toLowerCase()))
-							{
-								// Increment progress count
-								progress.incrementTaskProgress(task.getId(), 1);
+	/**
+	 * Visit every var watched by a QUEST or MINIGAME task
+	 */
+	public void forEachWatchedVar(VarTaskHandler.VarVisitor visitor)
+	{
+		handlerRegistry.forEachWatchedVar(visitor);
+	}
 
-								int currentCount = progress.getTaskProgress(task.getId());
-								int targetCount = Integer.parseInt(requiredCount);
+	/**
+	 * Diary revision the task handlers were last built from, or -1 if never built
+	 */
+	public int getIndexedRevision()
+	{
+		return indexedRevision;
+	}
 
-								log.debug("Custom task progress for {}: {}/{} ({})", rsn, currentCount, targetCount, task.getDescription());
+	/**
+	 * Complete a task once its updated progress reaches the target
+	 */
+	private void record(String rsn, UserProgress progress, TrackedTask tracked)
+	{
+		DiaryTask task = tracked.getTask();
+		int current = progress.getTaskProgress(task.getId());
+		int target = tracked.getTarget();
 
-								// Check if task is completed
-								if (currentCount >= targetCount && !progress.isTaskCompleted(task.getId()))
-								{
-									progress.completeTask(task.getId());
-									log.info("Task completed: {} - {}", rsn, task.getDescription());
+		log.debug("{} task progress for {}: {}/{} ({})", task.getType(), rsn, current, target, task.getDescription());
 
-									// Show in-game notification
-									showCompletionMessage(task.getDescription(), tier.getTierName());
-								}
+		// Check if task is completed
+		if (current >= target && !progress.isTaskCompleted(task.getId()))
+		{
+			progress.completeTask(task.getId());
+			log.info("Task completed: {} - {}", rsn, task.getDescription());
 
-								saveProgress(progress);
-							}
-						}
-					}
-				}
-			}
+			// Show in-game notification
+			showCompletionMessage(task.getDescription(), tracked.getTierName());
 		}
+
+		progressStore.record(progress, task.getId());
 	}
 
 	/**
-	 * Handle NPC kill event
+	 * Rebuild the task handlers if the diary set changed since they were last built
 	 */
-	public void onNpcKilled(String rsn, String npcName)
+	private void refreshIndexes()
 	{
-		// Check all active diaries for KILL tasks matching this NPC
-		for (ClanDiary diary : diaryManager.getActiveDiaries())
+		int revision = diaryManager.getRevision();
+		if (revision == indexedRevision)
 		{
-			UserProgress progress = loadProgress(rsn, diary.getId());
-
-			for (DiaryTier tier : diary.getTiers())
-			{
-				for (DiaryTask task : tier.getTasks())
-				{
-					if (task.getType() == TaskType.KILL)
-					{
-						String requiredNpc = task.getRequirement("npc");
-						String requiredCount = task.getRequirement("count");
-
-						if (requiredNpc != null && requiredCount != null)
-						{
-							// Check if NPC name matches (case-insensitive)
-							if (npcName.equalsIgnoreCase(requiredNpc))
-							{
-								// Increment kill count
-								progress.incrementTaskProgress(task.getId(), 1);
-
-								int currentKills = progress.getTaskProgress(task.getId());
-								int targetKills = Integer.parseInt(requiredCount);
-
-								log.debug("Kill progress for {}: {}/{} {}", rsn, currentKills, targetKills, npcName);
-
-								// Check if task is completed
-								if (currentKills >= targetKills && !progress.isTaskCompleted(task.getId()))
-								{
-									progress.completeTask(task.getId());
-									log.info("Task completed: {} - {}", rsn, task.getDescription());
-
-									// Show in-game notification
-									showCompletionMessage(task.getDescription(), tier.getTierName());
-								}
-
-								saveProgress(progress);
-							}
-						}
-					}
-				}
-			}
+			return;
 		}
+
+		handlerRegistry.rebuild(TaskCompiler.compile(diaryManager.getActiveDiaries(), handlerRegistry.getPatternCache()));
+		indexedRevision = revision;
 	}
 
 	/**
@@ -238,35 +174,35 @@ public class TaskTracker
 	 */
 	public int getDiaryCompletion(String rsn, String diaryId)
 	{
-		ClanDiary diary = diaryManager.getDiaryById(diaryId);
-		if (diary == null)
+		// The header's task count avoids loading the diary just to list it
+		DiaryHeader header = diaryManager.getHeaderById(diaryId);
+		if (header == null)
 		{
 			return 0;
 		}
 
-		UserProgress progress = loadProgress(rsn, diaryId);
-		return progress.getCompletionPercentage(diary.getTotalTaskCount());
+		return progressStore.read(rsn, diaryId, progress -> progress.getCompletionPercentage(header.getTaskCount()));
 	}
 
 	/**
-	 * Show in-game notification for task completion
+	 * Show in-game notification for task completion, on the client thread
 	 */
 	private void showCompletionMessage(String taskDescription, String tierName)
 	{
 		String message = "<col=00ff00>Diary Task Complete!</col> [" + tierName + "] " + taskDescription;
-		client.addChatMessage(
+		clientThread.invokeLater(() -> client.addChatMessage(
 			ChatMessageType.GAMEMESSAGE,
 			"",
 			message,
 			null
-		);
+		));
 	}
 
 	/**
-	 * Clear progress cache (call when logging out)
+	 * Flush pending progress and clear the cache (call when logging out)
 	 */
 	public void clearCache()
 	{
-		progressCache.clear();
+		progressStore.clear();
 	}
 }
@@ -0,0 +1,170 @@
+package com.dadscape.manager;
+
+import com.dadscape.tracker.TickBatch;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer pipeline that applies game events to diary progress off the client thread.
+ * Event subscribers only enqueue one immutable batch per game tick; one background worker
+ * applies them in order, along with journal syncs and periodic compaction. Progress is
+ * still read from other threads (the panel on the EDT), so every ProgressStore entry point
+ * is synchronized. The worker takes that lock once per task update and never while
+ * waiting on the queue.
+ */
+@Slf4j
+@Singleton
+public class TrackingPipeline
+{
+	/**
+	 * How often the progress journal is compacted into the config snapshot.
+	 * Updates are journaled every tick, so this only bounds the journal's size.
+	 */
+	private static final int COMPACT_INTERVAL_SECONDS = 300;
+
+	private static final int SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+	private final TaskTracker taskTracker;
+	private final ProgressStore progressStore;
+
+	private volatile ScheduledExecutorService worker;
+
+	@Inject
+	public TrackingPipeline(TaskTracker taskTracker, ProgressStore progressStore)
+	{
+		this.taskTracker = taskTracker;
+		this.progressStore = progressStore;
+	}
+
+	/**
+	 * Start the worker and the periodic progress flush.
+	 * Queued events are held until the plugin is ready, so nothing seen during startup is lost.
+	 */
+	public void start(CompletableFuture<?> ready)
+	{
+		if (worker != null)
+		{
+			return;
+		}
+
+		worker = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "DadScape Tracker");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		worker.execute(() -> awaitReady(ready));
+
+		worker.scheduleWithFixedDelay(
+			() -> run(progressStore::flush),
+			COMPACT_INTERVAL_SECONDS,
+			COMPACT_INTERVAL_SECONDS,
+			TimeUnit.SECONDS
+		);
+	}
+
+	/**
+	 * Drain queued events, write out pending progress and stop the worker
+	 */
+	public void stop()
+	{
+		if (worker == null)
+		{
+			return;
+		}
+
+		worker.execute(() -> run(progressStore::close));
+		worker.shutdown();
+
+		try
+		{
+			if (!worker.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+			{
+				log.warn("Tracker worker did not finish within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+				worker.shutdownNow();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			worker.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+
+		worker = null;
+	}
+
+	/**
+	 * Queue the aggregated events of one game tick
+	 */
+	public void submit(TickBatch batch)
+	{
+		enqueue(() -> {
+			taskTracker.onTickBatch(batch);
+			// One fsync for everything the tick changed
+			progressStore.sync();
+		});
+	}
+
+	/**
+	 * Queue a flush of pending progress (e.g. on logout or world hop)
+	 */
+	public void flush()
+	{
+		enqueue(progressStore::flush);
+	}
+
+	/**
+	 * Block the worker until startup finishes; everything submitted meanwhile stays queued
+	 */
+	private static void awaitReady(CompletableFuture<?> ready)
+	{
+		try
+		{
+			ready.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch (CancellationException e)
+		{
+			log.debug("Startup was cancelled by a shutdown");
+		}
+		catch (ExecutionException e)
+		{
+			log.warn("Startup did not complete, tracking with whatever diaries were loaded");
+		}
+	}
+
+	private void enqueue(Runnable task)
+	{
+		ScheduledExecutorService current = worker;
+		if (current == null || current.isShutdown())
+		{
+			log.debug("Tracker worker not running, dropping event");
+			return;
+		}
+
+		current.execute(() -> run(task));
+	}
+
+	private static void run(Runnable task)
+	{
+		try
+		{
+			task.run();
+		}
+		catch (Exception e)
+		{
+			log.error("Error processing tracker event", e);
+		}
+	}
+}
@@ -0,0 +1,467 @@
+package com.dadscape.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact, versioned binary encoding of diaries and user progress for local storage.
+ * Every string is written once to a string table and referenced by index, so repeated
+ * requirement keys, NPC names and task IDs cost a byte or two each; counts and numbers
+ * are varints. Progress is written as one dense list of task entries with a completion
+ * bitmap over the same entries. Entries are keyed by task ID, not by TaskSlots slot:
+ * slots are only valid for one layout of one diary, and a snapshot has to be readable
+ * before its diary is loaded and after the diary's tasks were edited. Only tasks with
+ * progress or a completion get an entry. Encoded data is Base64 text so it fits in config.
+ * JSON (via Gson) remains the format for export, import and the API.
+ */
+public final class BinaryCodec
+{
+	private static final byte MAGIC_0 = 'D';
+	private static final byte MAGIC_1 = 'S';
+
+	/**
+	 * Current format version; bump when the layout changes and keep reading older versions
+	 */
+	private static final int VERSION = 1;
+
+	private static final int KIND_DIARIES = 1;
+	private static final int KIND_PROGRESS = 2;
+
+	private BinaryCodec()
+	{
+	}
+
+	/**
+	 * Check if stored text was written by this codec rather than as JSON
+	 */
+	public static boolean isEncoded(String stored)
+	{
+		return stored != null && !stored.isEmpty() && stored.charAt(0) != '[' && stored.charAt(0) != '{';
+	}
+
+	public static String encodeDiaries(List<ClanDiary> diaries)
+	{
+		StringTable strings = new StringTable();
+		Writer body = new Writer();
+
+		body.varint(diaries.size());
+		for (ClanDiary diary : diaries)
+		{
+			body.varint(strings.ref(diary.getId()));
+			body.varint(strings.ref(diary.getName()));
+			body.varint(strings.ref(diary.getDescription()));
+			body.varint(strings.ref(diary.getCategory()));
+			body.varint(strings.ref(diary.getVersion()));
+			body.varlong(diary.getCreatedDate());
+			body.varint(strings.ref(diary.getCreatedBy()));
+			body.varlong(diary.getLastModified());
+			body.varint(strings.ref(diary.getLastModifiedBy()));
+			body.varint(diary.isActive() ? 1 : 0);
+
+			List<DiaryTier> tiers = diary.getTiers();
+			body.varint(tiers != null ? tiers.size() + 1 : 0);
+			if (tiers != null)
+			{
+				for (DiaryTier tier : tiers)
+				{
+					writeTier(tier, strings, body);
+				}
+			}
+		}
+
+		return finish(KIND_DIARIES, strings, body);
+	}
+
+	public static List<ClanDiary> decodeDiaries(String stored)
+	{
+		Reader in = open(stored, KIND_DIARIES);
+		String[] strings = in.strings;
+
+		int count = in.varint();
+		List<ClanDiary> diaries = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+		{
+			ClanDiary diary = new ClanDiary();
+			diary.setId(in.string(strings));
+			diary.setName(in.string(strings));
+			diary.setDescription(in.string(strings));
+			diary.setCategory(in.string(strings));
+			diary.setVersion(in.string(strings));
+			diary.setCreatedDate(in.varlong());
+			diary.setCreatedBy(in.string(strings));
+			diary.setLastModified(in.varlong());
+			diary.setLastModifiedBy(in.string(strings));
+			diary.setActive(in.varint() != 0);
+
+			int tierCount = in.varint();
+			if (tierCount > 0)
+			{
+				List<DiaryTier> tiers = new ArrayList<>(tierCount - 1);
+				for (int t = 0; t < tierCount - 1; t++)
+				{
+					tiers.add(readTier(in, strings));
+				}
+				diary.setTiers(tiers);
+			}
+			diaries.add(diary);
+		}
+		return diaries;
+	}
+
+	public static String encodeProgress(UserProgress progress)
+	{
+		StringTable strings = new StringTable();
+		Writer body = new Writer();
+
+		body.varint(strings.ref(progress.getRsn()));
+		body.varint(strings.ref(progress.getDiaryId()));
+		body.varlong(progress.getLastUpdated());
+
+		// One entry per task with progress or a completion, in slot order
+		Map<String, Integer> counts = progress.copyProgress();
+		Set<String> completed = progress.copyCompleted();
+		Set<String> taskIds = new LinkedHashSet<>(counts.keySet());
+		taskIds.addAll(completed);
+
+		body.varint(taskIds.size());
+		BitSet completion = new BitSet(taskIds.size());
+		int entry = 0;
+		for (String taskId : taskIds)
+		{
+			body.varint(strings.ref(taskId));
+			body.zigzag(counts.getOrDefault(taskId, 0));
+			if (completed.contains(taskId))
+			{
+				completion.set(entry);
+			}
+			entry++;
+		}
+
+		byte[] bits = Arrays.copyOf(completion.toByteArray(), (taskIds.size() + 7) / 8);
+		body.bytes(bits);
+
+		return finish(KIND_PROGRESS, strings, body);
+	}
+
+	public static UserProgress decodeProgress(String stored)
+	{
+		Reader in = open(stored, KIND_PROGRESS);
+		String[] strings = in.strings;
+
+		UserProgress progress = new UserProgress();
+		progress.setRsn(in.string(strings));
+		progress.setDiaryId(in.string(strings));
+		progress.setLastUpdated(in.varlong());
+
+		int count = in.varint();
+		String[] taskIds = new String[count];
+		for (int i = 0; i < count; i++)
+		{
+			taskIds[i] = in.string(strings);
+			int value = in.zigzag();
+			if (value != 0)
+			{
+				progress.restoreProgress(taskIds[i], value);
+			}
+		}
+
+		BitSet completion = BitSet.valueOf(in.bytes((count + 7) / 8));
+		for (int i = completion.nextSetBit(0); i >= 0; i = completion.nextSetBit(i + 1))
+		{
+			progress.restoreCompleted(taskIds[i]);
+		}
+		return progress;
+	}
+
+	private static void writeTier(DiaryTier tier, StringTable strings, Writer body)
+	{
+		body.varint(strings.ref(tier.getTierName()));
+		body.varint(strings.ref(tier.getTierColor()));
+		body.varint(strings.ref(tier.getRewardDescription()));
+		body.zigzag(tier.getOrder());
+
+		List<DiaryTask> tasks = tier.getTasks();
+		body.varint(tasks != null ? tasks.size() + 1 : 0);
+		if (tasks == null)
+		{
+			return;
+		}
+
+		for (DiaryTask task : tasks)
+		{
+			body.varint(strings.ref(task.getId()));
+			body.varint(strings.ref(task.getDescription()));
+			body.varint(strings.ref(task.getType() != null ? task.getType().name() : task.getUnknownType()));
+			body.varint(strings.ref(task.getHint()));
+			body.zigzag(task.getOrder());
+
+			Map<String, String> requirements = task.getRequirements();
+			body.varint(requirements != null ? requirements.size() + 1 : 0);
+			if (requirements != null)
+			{
+				for (Map.Entry<String, String> requirement : requirements.entrySet())
+				{
+					body.varint(strings.ref(requirement.getKey()));
+					body.varint(strings.ref(requirement.getValue()));
+				}
+			}
+		}
+	}
+
+	private static DiaryTier readTier(Reader in, String[] strings)
+	{
+		DiaryTier tier = new DiaryTier();
+		tier.setTierName(in.string(strings));
+		tier.setTierColor(in.string(strings));
+		tier.setRewardDescription(in.string(strings));
+		tier.setOrder(in.zigzag());
+
+		int taskCount = in.varint();
+		if (taskCount == 0)
+		{
+			return tier;
+		}
+
+		List<DiaryTask> tasks = new ArrayList<>(taskCount - 1);
+		for (int i = 0; i < taskCount - 1; i++)
+		{
+			DiaryTask task = new DiaryTask();
+			task.setId(in.string(strings));
+			task.setDescription(in.string(strings));
+			String type = in.string(strings);
+			if (type != null)
+			{
+				readType(task, type);
+			}
+			task.setHint(in.string(strings));
+			task.setOrder(in.zigzag());
+
+			int requirementCount = in.varint();
+			if (requirementCount > 0)
+			{
+				Map<String, String> requirements = new LinkedHashMap<>();
+				for (int r = 0; r < requirementCount - 1; r++)
+				{
+					requirements.put(in.string(strings), in.string(strings));
+				}
+				task.setRequirements(requirements);
+			}
+			tasks.add(task);
+		}
+		tier.setTasks(tasks);
+		return tier;
+	}
+
+	private static void readType(DiaryTask task, String name)
+	{
+		try
+		{
+			task.setType(TaskType.valueOf(name));
+		}
+		catch (IllegalArgumentException e)
+		{
+			// Written by a newer version with a task type this one does not know; keep it as written
+			task.setUnknownType(name);
+		}
+	}
+
+	/**
+	 * Header, string table, then body
+	 */
+	private static String finish(int kind, StringTable strings, Writer body)
+	{
+		Writer out = new Writer();
+		out.raw(MAGIC_0);
+		out.raw(MAGIC_1);
+		out.varint(VERSION);
+		out.varint(kind);
+
+		out.varint(strings.values.size());
+		for (String value : strings.values)
+		{
+			byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+			out.varint(utf8.length);
+			out.bytes(utf8);
+		}
+
+		out.bytes(Arrays.copyOf(body.buf, body.size));
+		return Base64.getEncoder().encodeToString(Arrays.copyOf(out.buf, out.size));
+	}
+
+	private static Reader open(String stored, int kind)
+	{
+		Reader in = new Reader(Base64.getDecoder().decode(stored));
+		if (in.raw() != MAGIC_0 || in.raw() != MAGIC_1)
+		{
+			throw new IllegalArgumentException("Not a DadScape binary record");
+		}
+
+		int version = in.varint();
+		if (version < 1 || version > VERSION)
+		{
+			throw new IllegalArgumentException("Unsupported binary format version " + version);
+		}
+
+		int storedKind = in.varint();
+		if (storedKind != kind)
+		{
+			throw new IllegalArgumentException("Expected record kind " + kind + " but found " + storedKind);
+		}
+
+		String[] strings = new String[in.varint()];
+		for (int i = 0; i < strings.length; i++)
+		{
+			strings[i] = new String(in.bytes(in.varint()), StandardCharsets.UTF_8);
+		}
+		in.strings = strings;
+		return in;
+	}
+
+	/**
+	 * De-duplicated strings in first-use order; reference 0 is null
+	 */
+	private static class StringTable
+	{
+		private final Map<String, Integer> refs = new HashMap<>();
+		private final List<String> values = new ArrayList<>();
+
+		int ref(String value)
+		{
+			if (value == null)
+			{
+				return 0;
+			}
+
+			Integer ref = refs.get(value);
+			if (ref == null)
+			{
+				values.add(value);
+				ref = values.size();
+				refs.put(value, ref);
+			}
+			return ref;
+		}
+	}
+
+	private static class Writer
+	{
+		private byte[] buf = new byte[256];
+		private int size;
+
+		void raw(byte b)
+		{
+			if (size == buf.length)
+			{
+				buf = Arrays.copyOf(buf, size * 2);
+			}
+			buf[size++] = b;
+		}
+
+		void varint(int value)
+		{
+			varlong(value & 0xFFFFFFFFL);
+		}
+
+		void varlong(long value)
+		{
+			while ((value & ~0x7FL) != 0)
+			{
+				raw((byte) ((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			raw((byte) value);
+		}
+
+		void zigzag(int value)
+		{
+			varint((value << 1) ^ (value >> 31));
+		}
+
+		void bytes(byte[] bytes)
+		{
+			if (size + bytes.length > buf.length)
+			{
+				buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + bytes.length));
+			}
+			System.arraycopy(bytes, 0, buf, size, bytes.length);
+			size += bytes.length;
+		}
+	}
+
+	private static class Reader
+	{
+		private final byte[] buf;
+		private int pos;
+		private String[] strings;
+
+		Reader(byte[] buf)
+		{
+			this.buf = buf;
+		}
+
+		byte raw()
+		{
+			if (pos >= buf.length)
+			{
+				throw new IllegalArgumentException("Truncated binary record");
+			}
+			return buf[pos++];
+		}
+
+		int varint()
+		{
+			return (int) varlong();
+		}
+
+		long varlong()
+		{
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7)
+			{
+				byte b = raw();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+				{
+					return value;
+				}
+			}
+			throw new IllegalArgumentException("Malformed varint");
+		}
+
+		int zigzag()
+		{
+			int value = varint();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		byte[] bytes(int length)
+		{
+			if (length < 0 || pos + length > buf.length)
+			{
+				throw new IllegalArgumentException("Truncated binary record");
+			}
+			byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+			pos += length;
+			return bytes;
+		}
+
+		String string(String[] table)
+		{
+			int ref = varint();
+			if (ref < 0 || ref > table.length)
+			{
+				throw new IllegalArgumentException("Bad string reference " + ref);
+			}
+			return ref == 0 ? null : table[ref - 1];
+		}
+	}
+}
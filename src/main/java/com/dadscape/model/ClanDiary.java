@@ -183,4 +183,22 @@ public class ClanDiary
 			this.version = this.version + ".1";
 		}
 	}
+
+	/**
+	 * Deep copy this diary, so the copy can be edited while the original is being read
+	 */
+	public ClanDiary copy()
+	{
+		List<DiaryTier> tierCopies = null;
+		if (tiers != null)
+		{
+			tierCopies = new ArrayList<>(tiers.size());
+			for (DiaryTier tier : tiers)
+			{
+				tierCopies.add(tier.copy());
+			}
+		}
+		return new ClanDiary(id, name, description, category, version, createdDate, createdBy,
+			lastModified, lastModifiedBy, tierCopies, active);
+	}
 }
@@ -0,0 +1,56 @@
+package com.dadscape.model;
+
+import lombok.Value;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Summary of a diary: enough to list it without loading its tiers and tasks.
+ */
+@Value
+public class DiaryHeader
+{
+	String id;
+	String name;
+	String category;
+	boolean active;
+	int tierCount;
+
+	/**
+	 * Number of distinct task IDs, the same as the size of the diary's TaskSlots layout
+	 */
+	int taskCount;
+
+	/**
+	 * Summarize a fully loaded diary
+	 */
+	public static DiaryHeader of(ClanDiary diary)
+	{
+		Set<String> taskIds = new HashSet<>();
+		if (diary.getTiers() != null)
+		{
+			for (DiaryTier tier : diary.getTiers())
+			{
+				if (tier.getTasks() == null)
+				{
+					continue;
+				}
+
+				for (DiaryTask task : tier.getTasks())
+				{
+					taskIds.add(task.getId());
+				}
+			}
+		}
+
+		return new DiaryHeader(
+			diary.getId(),
+			diary.getName(),
+			diary.getCategory(),
+			diary.isActive(),
+			diary.getTiers() != null ? diary.getTiers().size() : 0,
+			taskIds.size()
+		);
+	}
+}
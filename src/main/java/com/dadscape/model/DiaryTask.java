@@ -52,6 +52,12 @@ public class DiaryTask
 	 */
 	private int order;
 
+	/**
+	 * Stored type name that is not a TaskType this version knows; type is null then.
+	 * Kept so the task is saved with the type it was written with.
+	 */
+	private transient String unknownType;
+
 	/**
 	 * Create a new task with generated UUID
 	 */
@@ -67,6 +73,15 @@ public class DiaryTask
 		return task;
 	}
 
+	/**
+	 * Set the task type, replacing any unknown stored type
+	 */
+	public void setType(TaskType type)
+	{
+		this.type = type;
+		this.unknownType = null;
+	}
+
 	/**
 	 * Add a requirement to this task
 	 */
@@ -86,4 +101,12 @@ public class DiaryTask
 	{
 		return requirements != null ? requirements.get(key) : null;
 	}
+
+	/**
+	 * Copy this task, including its requirements
+	 */
+	public DiaryTask copy()
+	{
+		return new DiaryTask(id, description, type, requirements != null ? new HashMap<>(requirements) : null, hint, order, unknownType);
+	}
 }
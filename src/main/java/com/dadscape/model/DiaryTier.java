@@ -102,4 +102,21 @@ public class DiaryTier
 			.findFirst()
 			.orElse(null);
 	}
+
+	/**
+	 * Copy this tier and its tasks
+	 */
+	public DiaryTier copy()
+	{
+		List<DiaryTask> taskCopies = null;
+		if (tasks != null)
+		{
+			taskCopies = new ArrayList<>(tasks.size());
+			for (DiaryTask task : tasks)
+			{
+				taskCopies.add(task.copy());
+			}
+		}
+		return new DiaryTier(tierName, tierColor, taskCopies, rewardDescription, order);
+	}
 }
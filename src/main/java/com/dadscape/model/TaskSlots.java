@@ -0,0 +1,115 @@
+package com.dadscape.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dense slot layout for the tasks of one diary snapshot.
+ * Every task gets an int slot so progress can live in flat arrays;
+ * one layout is shared by the progress of every user on that diary.
+ */
+public final class TaskSlots
+{
+	public static final TaskSlots EMPTY = new TaskSlots(new String[0], new int[0], 0, Collections.emptyMap());
+
+	private final String[] taskIds;
+	private final int[] tierOfSlot;
+	private final int tierCount;
+	private final Map<String, Integer> slotsById;
+
+	private TaskSlots(String[] taskIds, int[] tierOfSlot, int tierCount, Map<String, Integer> slotsById)
+	{
+		this.taskIds = taskIds;
+		this.tierOfSlot = tierOfSlot;
+		this.tierCount = tierCount;
+		this.slotsById = slotsById;
+	}
+
+	/**
+	 * Assign a slot to every task in the diary, in tier then task order
+	 */
+	public static TaskSlots of(ClanDiary diary)
+	{
+		int taskCount = diary.getTotalTaskCount();
+		String[] taskIds = new String[taskCount];
+		int[] tierOfSlot = new int[taskCount];
+		Map<String, Integer> slotsById = new HashMap<>(taskCount * 2);
+
+		int slot = 0;
+		int tierCount = 0;
+		if (diary.getTiers() != null)
+		{
+			tierCount = diary.getTiers().size();
+			for (int tierIndex = 0; tierIndex < tierCount; tierIndex++)
+			{
+				DiaryTier tier = diary.getTiers().get(tierIndex);
+				if (tier.getTasks() == null)
+				{
+					continue;
+				}
+
+				for (DiaryTask task : tier.getTasks())
+				{
+					if (slotsById.putIfAbsent(task.getId(), slot) == null)
+					{
+						taskIds[slot] = task.getId();
+						tierOfSlot[slot] = tierIndex;
+						slot++;
+					}
+				}
+			}
+		}
+
+		if (slot < taskCount)
+		{
+			// Duplicate task ids share a slot
+			taskIds = Arrays.copyOf(taskIds, slot);
+			tierOfSlot = Arrays.copyOf(tierOfSlot, slot);
+		}
+
+		return new TaskSlots(taskIds, tierOfSlot, tierCount, slotsById);
+	}
+
+	/**
+	 * Get the slot of a task, or -1 if the task is not part of this layout
+	 */
+	public int slotOf(String taskId)
+	{
+		Integer slot = slotsById.get(taskId);
+		return slot != null ? slot : -1;
+	}
+
+	/**
+	 * Get the task ID stored in a slot
+	 */
+	public String getTaskId(int slot)
+	{
+		return taskIds[slot];
+	}
+
+	/**
+	 * Get the index of the tier a slot belongs to
+	 */
+	public int getTier(int slot)
+	{
+		return tierOfSlot[slot];
+	}
+
+	/**
+	 * Get the number of tiers in the layout
+	 */
+	public int getTierCount()
+	{
+		return tierCount;
+	}
+
+	/**
+	 * Get the number of slots
+	 */
+	public int size()
+	{
+		return taskIds.length;
+	}
+}
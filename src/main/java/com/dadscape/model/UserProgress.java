@@ -1,46 +1,77 @@
 package com.dadscape.model;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import com.google.gson.annotations.JsonAdapter;
+import lombok.Getter;
+import lombok.Setter;
 
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
- * Tracks a user's progress on diary tasks
+ * Tracks a user's progress on diary tasks.
+ * Progress is kept in flat arrays indexed by the diary's TaskSlots layout;
+ * progress for task ids outside the bound layout (not yet bound, or since deleted)
+ * is kept aside until ProgressStore drops it. Serializes to the same JSON shape as the
+ * original map-based model via UserProgressAdapter.
  */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+@JsonAdapter(UserProgressAdapter.class)
 public class UserProgress
 {
 	/**
 	 * User's RSN
 	 */
+	@Getter
+	@Setter
 	private String rsn;
 
 	/**
 	 * Diary ID
 	 */
+	@Getter
+	@Setter
 	private String diaryId;
 
 	/**
-	 * Map of task ID to progress count
+	 * Timestamp when progress was last updated
+	 */
+	@Getter
+	@Setter
+	private long lastUpdated;
+
+	/**
+	 * Slot layout the arrays below are indexed by
+	 */
+	@Getter
+	private TaskSlots slots = TaskSlots.EMPTY;
+
+	/**
+	 * Progress count per slot
 	 * For KILL tasks, this is the number of kills
 	 * For SKILL tasks, this could be the level achieved
 	 */
-	private Map<String, Integer> taskProgress;
+	private int[] taskProgress = new int[0];
 
 	/**
-	 * Map of task ID to completion status
+	 * Completion flag per slot
 	 */
-	private Map<String, Boolean> taskCompletion;
+	private BitSet taskCompletion = new BitSet();
 
 	/**
-	 * Timestamp when progress was last updated
+	 * Completed slot counts, overall and per tier, kept in step with taskCompletion
 	 */
-	private long lastUpdated;
+	private int completedCount;
+	private int[] tierCompletedCount = new int[0];
+
+	/**
+	 * Progress and completion of tasks that have no slot in the bound layout
+	 */
+	private final Map<String, Integer> unboundProgress = new HashMap<>();
+	private final Set<String> unboundCompletion = new HashSet<>();
 
 	/**
 	 * Create new progress tracker for a user and diary
@@ -50,18 +81,70 @@ public class UserProgress
 		UserProgress progress = new UserProgress();
 		progress.setRsn(rsn);
 		progress.setDiaryId(diaryId);
-		progress.setTaskProgress(new HashMap<>());
-		progress.setTaskCompletion(new HashMap<>());
 		progress.setLastUpdated(System.currentTimeMillis());
 		return progress;
 	}
 
+	/**
+	 * Re-index progress onto a new slot layout and recount completions against it.
+	 * Tasks missing from the layout are kept aside rather than dropped.
+	 */
+	public void bind(TaskSlots layout)
+	{
+		if (layout == slots)
+		{
+			return;
+		}
+
+		Map<String, Integer> allProgress = copyProgress();
+		Set<String> allCompleted = copyCompleted();
+
+		slots = layout;
+		taskProgress = new int[layout.size()];
+		taskCompletion = new BitSet(layout.size());
+		completedCount = 0;
+		tierCompletedCount = new int[layout.getTierCount()];
+		unboundProgress.clear();
+		unboundCompletion.clear();
+
+		for (Map.Entry<String, Integer> entry : allProgress.entrySet())
+		{
+			restoreProgress(entry.getKey(), entry.getValue());
+		}
+		for (String taskId : allCompleted)
+		{
+			restoreCompleted(taskId);
+		}
+	}
+
+	/**
+	 * Drop progress and completions of tasks outside the bound layout
+	 *
+	 * @return whether anything was dropped
+	 */
+	public boolean dropUnbound()
+	{
+		if (unboundProgress.isEmpty() && unboundCompletion.isEmpty())
+		{
+			return false;
+		}
+
+		unboundProgress.clear();
+		unboundCompletion.clear();
+		return true;
+	}
+
 	/**
 	 * Get progress for a specific task
 	 */
 	public int getTaskProgress(String taskId)
 	{
-		return taskProgress.getOrDefault(taskId, 0);
+		int slot = slots.slotOf(taskId);
+		if (slot >= 0)
+		{
+			return taskProgress[slot];
+		}
+		return unboundProgress.getOrDefault(taskId, 0);
 	}
 
 	/**
@@ -69,7 +152,7 @@ public class UserProgress
 	 */
 	public void updateTaskProgress(String taskId, int progress)
 	{
-		taskProgress.put(taskId, progress);
+		restoreProgress(taskId, progress);
 		lastUpdated = System.currentTimeMillis();
 	}
 
@@ -78,8 +161,16 @@ public class UserProgress
 	 */
 	public void incrementTaskProgress(String taskId, int amount)
 	{
-		int current = getTaskProgress(taskId);
-		updateTaskProgress(taskId, current + amount);
+		int slot = slots.slotOf(taskId);
+		if (slot >= 0)
+		{
+			taskProgress[slot] += amount;
+		}
+		else
+		{
+			unboundProgress.merge(taskId, amount, Integer::sum);
+		}
+		lastUpdated = System.currentTimeMillis();
 	}
 
 	/**
@@ -87,7 +178,12 @@ public class UserProgress
 	 */
 	public boolean isTaskCompleted(String taskId)
 	{
-		return taskCompletion.getOrDefault(taskId, false);
+		int slot = slots.slotOf(taskId);
+		if (slot >= 0)
+		{
+			return taskCompletion.get(slot);
+		}
+		return unboundCompletion.contains(taskId);
 	}
 
 	/**
@@ -95,10 +191,27 @@ public class UserProgress
 	 */
 	public void completeTask(String taskId)
 	{
-		taskCompletion.put(taskId, true);
+		restoreCompleted(taskId);
 		lastUpdated = System.currentTimeMillis();
 	}
 
+	/**
+	 * Get the number of completed tasks. Bound progress uses its counters, which only cover
+	 * tasks still in the diary; until bound, every recorded completion is counted.
+	 */
+	public int getCompletedCount()
+	{
+		return slots != TaskSlots.EMPTY ? completedCount : unboundCompletion.size();
+	}
+
+	/**
+	 * Get the number of completed tasks in a tier, by tier index
+	 */
+	public int getTierCompletedCount(int tierIndex)
+	{
+		return tierIndex >= 0 && tierIndex < tierCompletedCount.length ? tierCompletedCount[tierIndex] : 0;
+	}
+
 	/**
 	 * Get total completion percentage for this diary
 	 */
@@ -109,10 +222,94 @@ public class UserProgress
 			return 0;
 		}
 
-		long completedCount = taskCompletion.values().stream()
-			.filter(completed -> completed)
-			.count();
+		// Unbound progress may still hold completions of tasks deleted since it was saved
+		return (int) Math.min(100, ((long) getCompletedCount() * 100) / totalTasks);
+	}
+
+	/**
+	 * Copy this progress, bound to the same layout
+	 */
+	public UserProgress copy()
+	{
+		UserProgress copy = create(rsn, diaryId);
+		copy.setLastUpdated(lastUpdated);
+		copy.bind(slots);
+		for (Map.Entry<String, Integer> entry : copyProgress().entrySet())
+		{
+			copy.restoreProgress(entry.getKey(), entry.getValue());
+		}
+		for (String taskId : copyCompleted())
+		{
+			copy.restoreCompleted(taskId);
+		}
+		return copy;
+	}
+
+	/**
+	 * Copy every non-zero progress count, bound and unbound, keyed by task ID
+	 */
+	Map<String, Integer> copyProgress()
+	{
+		Map<String, Integer> copy = new LinkedHashMap<>();
+		for (int slot = 0; slot < slots.size(); slot++)
+		{
+			if (taskProgress[slot] != 0)
+			{
+				copy.put(slots.getTaskId(slot), taskProgress[slot]);
+			}
+		}
+		copy.putAll(unboundProgress);
+		return copy;
+	}
 
-		return (int) ((completedCount * 100) / totalTasks);
+	/**
+	 * Copy every completed task ID, bound and unbound
+	 */
+	Set<String> copyCompleted()
+	{
+		Set<String> copy = new LinkedHashSet<>();
+		for (int slot = taskCompletion.nextSetBit(0); slot >= 0; slot = taskCompletion.nextSetBit(slot + 1))
+		{
+			copy.add(slots.getTaskId(slot));
+		}
+		copy.addAll(unboundCompletion);
+		return copy;
+	}
+
+	/**
+	 * Set progress without touching the last updated time
+	 */
+	void restoreProgress(String taskId, int progress)
+	{
+		int slot = slots.slotOf(taskId);
+		if (slot >= 0)
+		{
+			taskProgress[slot] = progress;
+		}
+		else
+		{
+			unboundProgress.put(taskId, progress);
+		}
+	}
+
+	/**
+	 * Mark completed without touching the last updated time
+	 */
+	void restoreCompleted(String taskId)
+	{
+		int slot = slots.slotOf(taskId);
+		if (slot >= 0)
+		{
+			if (!taskCompletion.get(slot))
+			{
+				taskCompletion.set(slot);
+				completedCount++;
+				tierCompletedCount[slots.getTier(slot)]++;
+			}
+		}
+		else
+		{
+			unboundCompletion.add(taskId);
+		}
 	}
 }
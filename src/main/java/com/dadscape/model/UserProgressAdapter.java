@@ -0,0 +1,109 @@
+package com.dadscape.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Gson adapter that keeps the original UserProgress JSON shape:
+ * {"rsn", "diaryId", "taskProgress": {id: count}, "taskCompletion": {id: true}, "lastUpdated"}
+ */
+public class UserProgressAdapter extends TypeAdapter<UserProgress>
+{
+	@Override
+	public void write(JsonWriter out, UserProgress progress) throws IOException
+	{
+		if (progress == null)
+		{
+			out.nullValue();
+			return;
+		}
+
+		out.beginObject();
+		out.name("rsn").value(progress.getRsn());
+		out.name("diaryId").value(progress.getDiaryId());
+
+		out.name("taskProgress").beginObject();
+		for (Map.Entry<String, Integer> entry : progress.copyProgress().entrySet())
+		{
+			out.name(entry.getKey()).value(entry.getValue());
+		}
+		out.endObject();
+
+		out.name("taskCompletion").beginObject();
+		for (String taskId : progress.copyCompleted())
+		{
+			out.name(taskId).value(true);
+		}
+		out.endObject();
+
+		out.name("lastUpdated").value(progress.getLastUpdated());
+		out.endObject();
+	}
+
+	@Override
+	public UserProgress read(JsonReader in) throws IOException
+	{
+		if (in.peek() == JsonToken.NULL)
+		{
+			in.nextNull();
+			return null;
+		}
+
+		UserProgress progress = new UserProgress();
+		in.beginObject();
+		while (in.hasNext())
+		{
+			String name = in.nextName();
+			if (in.peek() == JsonToken.NULL)
+			{
+				in.nextNull();
+				continue;
+			}
+
+			switch (name)
+			{
+				case "rsn":
+					progress.setRsn(in.nextString());
+					break;
+				case "diaryId":
+					progress.setDiaryId(in.nextString());
+					break;
+				case "lastUpdated":
+					progress.setLastUpdated(in.nextLong());
+					break;
+				case "taskProgress":
+					in.beginObject();
+					while (in.hasNext())
+					{
+						String taskId = in.nextName();
+						progress.restoreProgress(taskId, in.nextInt());
+					}
+					in.endObject();
+					break;
+				case "taskCompletion":
+					in.beginObject();
+					while (in.hasNext())
+					{
+						String taskId = in.nextName();
+						if (in.nextBoolean())
+						{
+							progress.restoreCompleted(taskId);
+						}
+					}
+					in.endObject();
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+
+		return progress;
+	}
+}
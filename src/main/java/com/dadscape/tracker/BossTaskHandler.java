@@ -0,0 +1,102 @@
+package com.dadscape.tracker;
+
+import com.dadscape.model.TaskType;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.util.Text;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tracks BOSS tasks from the game's kill count messages, e.g. "Your Zulrah kill count is: 12."
+ * Progress is set to the reported count rather than incremented, so it is exact and
+ * a repeated message never double counts. Tasks are keyed by the normalized boss name.
+ */
+@Slf4j
+public class BossTaskHandler implements TaskHandler
+{
+	private static final Set<TaskType> TASK_TYPES = EnumSet.of(TaskType.BOSS);
+
+	private static final Pattern KILL_COUNT = Pattern.compile("Your (.+) (?:kill|completion|success) count is: ([0-9,]+)");
+	private static final String KILL_COUNT_MARKER = " count is: ";
+
+	private final Map<String, List<TrackedTask>> tasksByBoss = new HashMap<>();
+
+	@Override
+	public Set<TaskType> getTaskTypes()
+	{
+		return TASK_TYPES;
+	}
+
+	@Override
+	public Set<Class<? extends TrackerEvent>> getEventTypes()
+	{
+		return Collections.singleton(GameMessageEvent.class);
+	}
+
+	@Override
+	public void rebuild(List<CompiledTask> tasks)
+	{
+		tasksByBoss.clear();
+		for (CompiledTask task : tasks)
+		{
+			CompiledBossTask boss = (CompiledBossTask) task;
+			tasksByBoss.computeIfAbsent(boss.getBossKey(), k -> new ArrayList<>()).add(boss.getTracked());
+		}
+
+		log.debug("Indexed BOSS tasks for {} bosses", tasksByBoss.size());
+	}
+
+	@Override
+	public boolean isTracking()
+	{
+		return !tasksByBoss.isEmpty();
+	}
+
+	@Override
+	public void handle(TrackerEvent event, ProgressSink sink)
+	{
+		String message = ((GameMessageEvent) event).getMessage();
+
+		// Most game messages are not kill counts; skip them without running the pattern
+		if (!message.contains(KILL_COUNT_MARKER))
+		{
+			return;
+		}
+
+		Matcher matcher = KILL_COUNT.matcher(Text.removeTags(message));
+		if (!matcher.find())
+		{
+			return;
+		}
+
+		List<TrackedTask> tasks = tasksByBoss.get(TaskCompiler.normalizeBoss(matcher.group(1)));
+		if (tasks == null)
+		{
+			return;
+		}
+
+		int killCount;
+		try
+		{
+			killCount = Integer.parseInt(matcher.group(2).replace(",", ""));
+		}
+		catch (NumberFormatException e)
+		{
+			log.debug("Unreadable kill count in '{}'", message);
+			return;
+		}
+
+		for (TrackedTask tracked : tasks)
+		{
+			sink.setProgress(tracked, killCount);
+		}
+	}
+}
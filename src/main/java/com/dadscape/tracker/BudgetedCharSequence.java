@@ -0,0 +1,61 @@
+package com.dadscape.tracker;
+
+/**
+ * Message text that aborts regex matching once a deadline passes.
+ * java.util.regex reads input through charAt, so checking the clock there bounds
+ * how long any pattern, however badly written, can spend on one message.
+ */
+class BudgetedCharSequence implements CharSequence
+{
+	// Reading the clock on every character would dominate cheap matches
+	private static final int CHECK_INTERVAL = 64;
+
+	private final CharSequence text;
+	private final long deadline;
+	private int reads;
+
+	BudgetedCharSequence(CharSequence text, long deadline)
+	{
+		this.text = text;
+		this.deadline = deadline;
+	}
+
+	@Override
+	public char charAt(int index)
+	{
+		if (++reads % CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0)
+		{
+			throw new BudgetExceededException();
+		}
+		return text.charAt(index);
+	}
+
+	@Override
+	public int length()
+	{
+		return text.length();
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end)
+	{
+		return new BudgetedCharSequence(text.subSequence(start, end), deadline);
+	}
+
+	@Override
+	public String toString()
+	{
+		return text.toString();
+	}
+
+	/**
+	 * Thrown when matching runs past the deadline
+	 */
+	static class BudgetExceededException extends RuntimeException
+	{
+		BudgetExceededException()
+		{
+			super("Chat pattern match budget exceeded", null, false, false);
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+/**
+ * Occurrences of one chat message during a game tick
+ */
+@Value
+public class ChatEvent implements TrackerEvent
+{
+	String message;
+	int count;
+}
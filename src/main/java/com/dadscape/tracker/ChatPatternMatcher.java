@@ -0,0 +1,212 @@
+package com.dadscape.tracker;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Case-insensitive multi-pattern matcher for CUSTOM task chat patterns.
+ * Compiles every CUSTOM task's chat pattern into a single Aho-Corasick automaton so a message
+ * is matched against all patterns in one pass, folding case per character instead
+ * of allocating lowercased copies. Not thread-safe; use from a single thread.
+ */
+@Slf4j
+public class ChatPatternMatcher
+{
+	private static final int ROOT = 0;
+
+	// Automaton, one entry per node. Edges are sorted by character for binary search.
+	private char[][] edgeChars = new char[][]{new char[0]};
+	private int[][] edgeTargets = new int[][]{new int[0]};
+	private int[] failure = new int[]{ROOT};
+	private int[][] outputs = new int[][]{new int[0]};
+
+	// Tasks for each pattern id
+	private List<List<TrackedTask>> patternTasks = Collections.emptyList();
+
+	// Per-match de-duplication, so a pattern seen twice in one message only counts once
+	private int[] seenStamp = new int[0];
+	private int stamp;
+
+	/**
+	 * Rebuild the automaton from compiled CUSTOM tasks
+	 */
+	public void rebuild(List<CompiledTask> tasks)
+	{
+		Map<String, List<TrackedTask>> tasksByPattern = new HashMap<>();
+		for (CompiledTask task : tasks)
+		{
+			CompiledChatTask chat = (CompiledChatTask) task;
+			tasksByPattern.computeIfAbsent(chat.getPattern(), k -> new ArrayList<>()).add(chat.getTracked());
+		}
+
+		compile(tasksByPattern);
+		log.debug("Compiled {} chat patterns into {} automaton states", tasksByPattern.size(), failure.length);
+	}
+
+	/**
+	 * Check if no patterns are compiled
+	 */
+	public boolean isEmpty()
+	{
+		return patternTasks.isEmpty();
+	}
+
+	/**
+	 * Find every task whose chat pattern occurs in the message
+	 */
+	public List<TrackedTask> match(String message)
+	{
+		if (patternTasks.isEmpty() || message == null)
+		{
+			return Collections.emptyList();
+		}
+
+		stamp++;
+		List<TrackedTask> matched = null;
+		int state = ROOT;
+
+		for (int i = 0; i < message.length(); i++)
+		{
+			char c = Character.toLowerCase(message.charAt(i));
+
+			int next = transition(state, c);
+			while (next < 0 && state != ROOT)
+			{
+				state = failure[state];
+				next = transition(state, c);
+			}
+			state = next < 0 ? ROOT : next;
+
+			for (int pattern : outputs[state])
+			{
+				if (seenStamp[pattern] == stamp)
+				{
+					continue;
+				}
+				seenStamp[pattern] = stamp;
+
+				if (matched == null)
+				{
+					matched = new ArrayList<>();
+				}
+				matched.addAll(patternTasks.get(pattern));
+			}
+		}
+
+		return matched != null ? matched : Collections.<TrackedTask>emptyList();
+	}
+
+	private int transition(int state, char c)
+	{
+		int i = Arrays.binarySearch(edgeChars[state], c);
+		return i >= 0 ? edgeTargets[state][i] : -1;
+	}
+
+	private void compile(Map<String, List<TrackedTask>> tasksByPattern)
+	{
+		// Build the trie
+		List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+		List<List<Integer>> nodeOutputs = new ArrayList<>();
+		List<List<TrackedTask>> tasks = new ArrayList<>();
+		edges.add(new TreeMap<>());
+		nodeOutputs.add(new ArrayList<>());
+
+		for (Map.Entry<String, List<TrackedTask>> entry : tasksByPattern.entrySet())
+		{
+			int node = ROOT;
+			for (char c : entry.getKey().toCharArray())
+			{
+				Integer next = edges.get(node).get(c);
+				if (next == null)
+				{
+					next = edges.size();
+					edges.get(node).put(c, next);
+					edges.add(new TreeMap<>());
+					nodeOutputs.add(new ArrayList<>());
+				}
+				node = next;
+			}
+
+			nodeOutputs.get(node).add(tasks.size());
+			tasks.add(entry.getValue());
+		}
+
+		int size = edges.size();
+		char[][] chars = new char[size][];
+		int[][] targets = new int[size][];
+		for (int node = 0; node < size; node++)
+		{
+			TreeMap<Character, Integer> nodeEdges = edges.get(node);
+			chars[node] = new char[nodeEdges.size()];
+			targets[node] = new int[nodeEdges.size()];
+
+			int i = 0;
+			for (Map.Entry<Character, Integer> edge : nodeEdges.entrySet())
+			{
+				chars[node][i] = edge.getKey();
+				targets[node][i] = edge.getValue();
+				i++;
+			}
+		}
+
+		// Breadth-first failure links, merging each node's outputs with its failure node's
+		int[] fail = new int[size];
+		int[][] out = new int[size][];
+		out[ROOT] = new int[0];
+
+		this.edgeChars = chars;
+		this.edgeTargets = targets;
+
+		Deque<Integer> queue = new ArrayDeque<>();
+		for (int child : targets[ROOT])
+		{
+			fail[child] = ROOT;
+			queue.add(child);
+		}
+
+		while (!queue.isEmpty())
+		{
+			int node = queue.poll();
+			out[node] = merge(nodeOutputs.get(node), out[fail[node]]);
+
+			for (int i = 0; i < chars[node].length; i++)
+			{
+				int child = targets[node][i];
+				int state = fail[node];
+				int next = transition(state, chars[node][i]);
+				while (next < 0 && state != ROOT)
+				{
+					state = fail[state];
+					next = transition(state, chars[node][i]);
+				}
+				fail[child] = next < 0 ? ROOT : next;
+				queue.add(child);
+			}
+		}
+
+		this.failure = fail;
+		this.outputs = out;
+		this.patternTasks = tasks;
+		this.seenStamp = new int[tasks.size()];
+		this.stamp = 0;
+	}
+
+	private static int[] merge(List<Integer> own, int[] inherited)
+	{
+		int[] merged = Arrays.copyOf(inherited, inherited.length + own.size());
+		for (int i = 0; i < own.size(); i++)
+		{
+			merged[inherited.length + i] = own.get(i);
+		}
+		return merged;
+	}
+}
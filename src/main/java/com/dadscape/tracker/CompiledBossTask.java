@@ -0,0 +1,13 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+/**
+ * A BOSS task, matched by normalized boss name; the target is the kill count
+ */
+@Value
+public class CompiledBossTask implements CompiledTask
+{
+	TrackedTask tracked;
+	String bossKey;
+}
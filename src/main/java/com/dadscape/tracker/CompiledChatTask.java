@@ -0,0 +1,29 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+import java.util.regex.Pattern;
+
+/**
+ * A CUSTOM task counted from chat messages, either by a case-folded substring
+ * or by a regex. A regex with a "count" group adds the captured number per match.
+ */
+@Value
+public class CompiledChatTask implements CompiledTask
+{
+	public static final String COUNT_GROUP = "count";
+
+	TrackedTask tracked;
+
+	/**
+	 * Case-folded substring, or null for a regex task
+	 */
+	String pattern;
+
+	/**
+	 * Compiled regex, or null for a substring task
+	 */
+	Pattern regex;
+
+	boolean capturesCount;
+}
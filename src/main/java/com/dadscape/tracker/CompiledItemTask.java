@@ -0,0 +1,23 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+/**
+ * An ITEM task; the target is the quantity to hold
+ */
+@Value
+public class CompiledItemTask implements CompiledTask
+{
+	TrackedTask tracked;
+	int[] itemIds;
+
+	/**
+	 * Only count items in the equipment
+	 */
+	boolean equipped;
+
+	/**
+	 * Require every listed item at once rather than any of them
+	 */
+	boolean allItems;
+}
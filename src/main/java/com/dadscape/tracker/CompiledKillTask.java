@@ -0,0 +1,16 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+/**
+ * A KILL task, matched by NPC id when one is set, otherwise by case-folded NPC name
+ */
+@Value
+public class CompiledKillTask implements CompiledTask
+{
+	public static final int ANY_NPC_ID = -1;
+
+	TrackedTask tracked;
+	int npcId;
+	String npcKey;
+}
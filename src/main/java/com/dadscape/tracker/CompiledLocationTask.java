@@ -0,0 +1,68 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+/**
+ * A LOCATION task covering whole regions, or a polygon of world tiles.
+ * Rectangles are stored as their four corners so every area shares the polygon test.
+ */
+@Value
+public class CompiledLocationTask implements CompiledTask
+{
+	public static final int ANY_PLANE = -1;
+
+	TrackedTask tracked;
+
+	/**
+	 * Regions covered in full, or null for a polygon
+	 */
+	int[] regionIds;
+
+	/**
+	 * Polygon corners, or null for whole regions
+	 */
+	int[] xs;
+	int[] ys;
+
+	int plane;
+
+	/**
+	 * Check if a tile is inside the area, edges included
+	 */
+	public boolean contains(int x, int y, int z)
+	{
+		if (plane != ANY_PLANE && plane != z)
+		{
+			return false;
+		}
+
+		if (xs == null)
+		{
+			return true;
+		}
+
+		boolean inside = false;
+		for (int i = 0, j = xs.length - 1; i < xs.length; j = i++)
+		{
+			if (onSegment(x, y, xs[j], ys[j], xs[i], ys[i]))
+			{
+				return true;
+			}
+
+			if ((ys[i] > y) != (ys[j] > y)
+				&& x < (long) (xs[j] - xs[i]) * (y - ys[i]) / (double) (ys[j] - ys[i]) + xs[i])
+			{
+				inside = !inside;
+			}
+		}
+		return inside;
+	}
+
+	private static boolean onSegment(int x, int y, int x1, int y1, int x2, int y2)
+	{
+		long cross = (long) (x2 - x1) * (y - y1) - (long) (y2 - y1) * (x - x1);
+		return cross == 0
+			&& x >= Math.min(x1, x2) && x <= Math.max(x1, x2)
+			&& y >= Math.min(y1, y2) && y <= Math.max(y1, y2);
+	}
+}
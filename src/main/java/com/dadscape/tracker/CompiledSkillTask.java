@@ -0,0 +1,14 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+import net.runelite.api.Skill;
+
+/**
+ * A SKILL task; the target is the level to reach
+ */
+@Value
+public class CompiledSkillTask implements CompiledTask
+{
+	TrackedTask tracked;
+	Skill skill;
+}
@@ -0,0 +1,13 @@
+package com.dadscape.tracker;
+
+/**
+ * A task whose requirements have been parsed and validated by TaskCompiler.
+ * Implementations are immutable, so event handlers never touch requirement strings.
+ */
+public interface CompiledTask
+{
+	/**
+	 * The task and its target
+	 */
+	TrackedTask getTracked();
+}
@@ -0,0 +1,14 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+/**
+ * A QUEST or MINIGAME task following a varbit or varp; the target is the completing value
+ */
+@Value
+public class CompiledVarTask implements CompiledTask
+{
+	TrackedTask tracked;
+	boolean varbit;
+	int varId;
+}
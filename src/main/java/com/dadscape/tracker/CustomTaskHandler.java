@@ -0,0 +1,157 @@
+package com.dadscape.tracker;
+
+import com.dadscape.model.TaskType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tracks CUSTOM tasks by matching their chat pattern or chat regex against chat messages.
+ * Substring patterns are all matched in one automaton scan. Regexes run against the
+ * message under a shared per-message time budget, so one bad pattern cannot stall tracking.
+ */
+@Slf4j
+public class CustomTaskHandler implements TaskHandler
+{
+	private static final Set<TaskType> TASK_TYPES = EnumSet.of(TaskType.CUSTOM);
+
+	private final ChatPatternMatcher matcher = new ChatPatternMatcher();
+	private final IntSupplier budgetMillis;
+
+	// Regex tasks grouped by pattern, so each distinct regex runs once per message
+	private Map<Pattern, List<CompiledChatTask>> regexTasks = Collections.emptyMap();
+
+	public CustomTaskHandler(IntSupplier budgetMillis)
+	{
+		this.budgetMillis = budgetMillis;
+	}
+
+	@Override
+	public Set<TaskType> getTaskTypes()
+	{
+		return TASK_TYPES;
+	}
+
+	@Override
+	public Set<Class<? extends TrackerEvent>> getEventTypes()
+	{
+		return Collections.singleton(ChatEvent.class);
+	}
+
+	@Override
+	public void rebuild(List<CompiledTask> tasks)
+	{
+		List<CompiledTask> substringTasks = new ArrayList<>();
+		Map<Pattern, List<CompiledChatTask>> byRegex = new LinkedHashMap<>();
+
+		for (CompiledTask task : tasks)
+		{
+			CompiledChatTask chat = (CompiledChatTask) task;
+			if (chat.getRegex() != null)
+			{
+				byRegex.computeIfAbsent(chat.getRegex(), k -> new ArrayList<>()).add(chat);
+			}
+			else
+			{
+				substringTasks.add(chat);
+			}
+		}
+
+		matcher.rebuild(substringTasks);
+		regexTasks = byRegex;
+	}
+
+	@Override
+	public boolean isTracking()
+	{
+		return !matcher.isEmpty() || !regexTasks.isEmpty();
+	}
+
+	@Override
+	public void handle(TrackerEvent event, ProgressSink sink)
+	{
+		ChatEvent chat = (ChatEvent) event;
+
+		// Every CUSTOM task whose chat pattern appears in the message, found in one scan
+		for (TrackedTask tracked : matcher.match(chat.getMessage()))
+		{
+			sink.advance(tracked, chat.getCount());
+		}
+
+		if (!regexTasks.isEmpty())
+		{
+			matchRegexes(chat, sink);
+		}
+	}
+
+	private void matchRegexes(ChatEvent chat, ProgressSink sink)
+	{
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis.getAsInt());
+		CharSequence message = new BudgetedCharSequence(chat.getMessage(), deadline);
+
+		for (Map.Entry<Pattern, List<CompiledChatTask>> entry : regexTasks.entrySet())
+		{
+			int matches = 0;
+			int captured = 0;
+			try
+			{
+				Matcher regexMatcher = entry.getKey().matcher(message);
+				while (regexMatcher.find())
+				{
+					matches++;
+					if (entry.getValue().get(0).isCapturesCount())
+					{
+						captured += parseCount(regexMatcher.group(CompiledChatTask.COUNT_GROUP));
+					}
+				}
+			}
+			catch (BudgetedCharSequence.BudgetExceededException e)
+			{
+				log.warn("Chat regex '{}' ran out of its {}ms budget; skipping remaining regexes for this message",
+					entry.getKey().pattern(), budgetMillis.getAsInt());
+				return;
+			}
+
+			if (matches == 0)
+			{
+				continue;
+			}
+
+			for (CompiledChatTask task : entry.getValue())
+			{
+				int amount = task.isCapturesCount() ? captured : matches;
+				if (amount > 0)
+				{
+					sink.advance(task.getTracked(), amount * chat.getCount());
+				}
+			}
+		}
+	}
+
+	private static int parseCount(String count)
+	{
+		if (count == null)
+		{
+			return 0;
+		}
+
+		try
+		{
+			return Integer.parseInt(count.replace(",", ""));
+		}
+		catch (NumberFormatException e)
+		{
+			return 0;
+		}
+	}
+}
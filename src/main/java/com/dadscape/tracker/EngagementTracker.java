@@ -0,0 +1,101 @@
+package com.dadscape.tracker;
+
+import java.util.Arrays;
+
+/**
+ * Remembers which NPCs the local player recently hit, so a death can be credited
+ * with one lookup. Entries are NPC indices paired with the tick of the last own
+ * hitsplat, kept in flat arrays since only a handful of NPCs are ever engaged at once.
+ * Only used from the client thread.
+ */
+public class EngagementTracker
+{
+	/**
+	 * Ticks after the last own hitsplat that a death is still credited (30 seconds)
+	 */
+	static final int ENGAGEMENT_TICKS = 50;
+
+	private int[] npcIndices = new int[16];
+	private int[] lastHitTicks = new int[16];
+	private int size;
+
+	/**
+	 * Record an own hitsplat on an NPC
+	 */
+	public void engage(int npcIndex, int tick)
+	{
+		int i = find(npcIndex);
+		if (i >= 0)
+		{
+			lastHitTicks[i] = tick;
+			return;
+		}
+
+		if (size == npcIndices.length)
+		{
+			npcIndices = Arrays.copyOf(npcIndices, size * 2);
+			lastHitTicks = Arrays.copyOf(lastHitTicks, size * 2);
+		}
+		npcIndices[size] = npcIndex;
+		lastHitTicks[size] = tick;
+		size++;
+	}
+
+	/**
+	 * Check if the player engaged a dying NPC recently, and forget it either way,
+	 * since the index can be reused by the next NPC to spawn
+	 */
+	public boolean consume(int npcIndex, int tick)
+	{
+		int i = find(npcIndex);
+		if (i < 0)
+		{
+			return false;
+		}
+
+		boolean engaged = tick - lastHitTicks[i] <= ENGAGEMENT_TICKS;
+		remove(i);
+		return engaged;
+	}
+
+	/**
+	 * Drop engagements older than the window
+	 */
+	public void expire(int tick)
+	{
+		for (int i = size - 1; i >= 0; i--)
+		{
+			if (tick - lastHitTicks[i] > ENGAGEMENT_TICKS)
+			{
+				remove(i);
+			}
+		}
+	}
+
+	/**
+	 * Forget every engagement (call when logging out or hopping)
+	 */
+	public void clear()
+	{
+		size = 0;
+	}
+
+	private int find(int npcIndex)
+	{
+		for (int i = 0; i < size; i++)
+		{
+			if (npcIndices[i] == npcIndex)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void remove(int i)
+	{
+		size--;
+		npcIndices[i] = npcIndices[size];
+		lastHitTicks[i] = lastHitTicks[size];
+	}
+}
@@ -0,0 +1,12 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+/**
+ * A game message shown to the local player, with formatting tags still in place
+ */
+@Value
+public class GameMessageEvent implements TrackerEvent
+{
+	String message;
+}
@@ -0,0 +1,142 @@
+package com.dadscape.tracker;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Open-addressing hash map from non-negative int keys to objects.
+ * Lookups probe a flat int array with no boxing, for indexes hit on every client event.
+ * Not thread-safe while being filled; safe to share once published.
+ */
+public class IntObjectMap<V>
+{
+	private static final int EMPTY = -1;
+
+	private int[] keys;
+	private Object[] values;
+	private int size;
+
+	public IntObjectMap()
+	{
+		this(8);
+	}
+
+	public IntObjectMap(int expectedSize)
+	{
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+		keys = new int[capacity];
+		values = new Object[capacity];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	/**
+	 * Get the value for a key, or null if absent
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key)
+	{
+		int mask = keys.length - 1;
+		for (int i = mix(key) & mask; ; i = (i + 1) & mask)
+		{
+			int k = keys[i];
+			if (k == key)
+			{
+				return (V) values[i];
+			}
+			if (k == EMPTY)
+			{
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Associate a value with a non-negative key
+	 */
+	public void put(int key, V value)
+	{
+		if (key < 0)
+		{
+			throw new IllegalArgumentException("Negative key " + key);
+		}
+
+		if ((size + 1) * 2 > keys.length)
+		{
+			resize(keys.length * 2);
+		}
+
+		int mask = keys.length - 1;
+		for (int i = mix(key) & mask; ; i = (i + 1) & mask)
+		{
+			if (keys[i] == key)
+			{
+				values[i] = value;
+				return;
+			}
+			if (keys[i] == EMPTY)
+			{
+				keys[i] = key;
+				values[i] = value;
+				size++;
+				return;
+			}
+		}
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Visit every key
+	 */
+	public void forEachKey(IntConsumer consumer)
+	{
+		for (int key : keys)
+		{
+			if (key != EMPTY)
+			{
+				consumer.accept(key);
+			}
+		}
+	}
+
+	private void resize(int capacity)
+	{
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+
+		keys = new int[capacity];
+		values = new Object[capacity];
+		Arrays.fill(keys, EMPTY);
+
+		int mask = capacity - 1;
+		for (int j = 0; j < oldKeys.length; j++)
+		{
+			if (oldKeys[j] == EMPTY)
+			{
+				continue;
+			}
+
+			int i = mix(oldKeys[j]) & mask;
+			while (keys[i] != EMPTY)
+			{
+				i = (i + 1) & mask;
+			}
+			keys[i] = oldKeys[j];
+			values[i] = oldValues[j];
+		}
+	}
+
+	private static int mix(int key)
+	{
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
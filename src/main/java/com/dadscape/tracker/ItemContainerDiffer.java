@@ -0,0 +1,35 @@
+package com.dadscape.tracker;
+
+import net.runelite.api.Item;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the last snapshot of each watched item container and turns container
+ * changes into item gain events. Only used from the client thread.
+ */
+public class ItemContainerDiffer
+{
+	private final Map<Integer, ItemSnapshot> snapshots = new HashMap<>();
+
+	/**
+	 * Record a container's new contents and batch the items gained since the last change
+	 */
+	public void diff(int containerId, Item[] items, TickBatcher batcher)
+	{
+		ItemSnapshot current = ItemSnapshot.of(items);
+		ItemSnapshot previous = snapshots.getOrDefault(containerId, ItemSnapshot.EMPTY);
+		snapshots.put(containerId, current);
+
+		current.forEachGained(previous, itemId -> batcher.add(new ItemEvent(containerId, itemId, current)));
+	}
+
+	/**
+	 * Forget all snapshots (call when logging out)
+	 */
+	public void clear()
+	{
+		snapshots.clear();
+	}
+}
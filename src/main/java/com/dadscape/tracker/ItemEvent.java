@@ -0,0 +1,23 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+/**
+ * An item gained in the inventory or equipment.
+ * ITEM tasks count the quantity held, so handlers read it from the container.
+ */
+@Value
+public class ItemEvent implements TrackerEvent
+{
+	/**
+	 * Container the item was gained in
+	 */
+	int containerId;
+
+	int itemId;
+
+	/**
+	 * The container's contents after the change
+	 */
+	ItemSnapshot container;
+}
@@ -0,0 +1,115 @@
+package com.dadscape.tracker;
+
+import net.runelite.api.Item;
+
+import java.util.Arrays;
+
+/**
+ * Immutable item id to quantity view of one item container.
+ * Ids are sorted and de-duplicated across slots, so two snapshots diff with a
+ * single merge pass and quantities are found by binary search.
+ */
+public class ItemSnapshot
+{
+	public static final ItemSnapshot EMPTY = new ItemSnapshot(new int[0], new int[0]);
+
+	private final int[] ids;
+	private final int[] quantities;
+
+	private ItemSnapshot(int[] ids, int[] quantities)
+	{
+		this.ids = ids;
+		this.quantities = quantities;
+	}
+
+	/**
+	 * Snapshot container slots, summing stacks of the same item
+	 */
+	public static ItemSnapshot of(Item[] items)
+	{
+		if (items == null || items.length == 0)
+		{
+			return EMPTY;
+		}
+
+		// Pack id and quantity so one sort orders slots by id
+		long[] packed = new long[items.length];
+		int count = 0;
+		for (Item item : items)
+		{
+			if (item.getId() >= 0 && item.getQuantity() > 0)
+			{
+				packed[count++] = ((long) item.getId() << 32) | item.getQuantity();
+			}
+		}
+		Arrays.sort(packed, 0, count);
+
+		int[] ids = new int[count];
+		int[] quantities = new int[count];
+		int size = 0;
+		for (int i = 0; i < count; i++)
+		{
+			int id = (int) (packed[i] >>> 32);
+			int quantity = (int) packed[i];
+			if (size > 0 && ids[size - 1] == id)
+			{
+				quantities[size - 1] += quantity;
+			}
+			else
+			{
+				ids[size] = id;
+				quantities[size] = quantity;
+				size++;
+			}
+		}
+
+		return new ItemSnapshot(Arrays.copyOf(ids, size), Arrays.copyOf(quantities, size));
+	}
+
+	/**
+	 * Quantity of an item in the container, or 0 if absent
+	 */
+	public int getQuantity(int itemId)
+	{
+		int i = Arrays.binarySearch(ids, itemId);
+		return i >= 0 ? quantities[i] : 0;
+	}
+
+	/**
+	 * Report every item whose quantity went up since the previous snapshot
+	 */
+	public void forEachGained(ItemSnapshot previous, GainVisitor visitor)
+	{
+		int i = 0;
+		int j = 0;
+		while (i < ids.length)
+		{
+			if (j >= previous.ids.length || ids[i] < previous.ids[j])
+			{
+				visitor.gained(ids[i]);
+				i++;
+			}
+			else if (ids[i] > previous.ids[j])
+			{
+				j++;
+			}
+			else
+			{
+				if (quantities[i] > previous.quantities[j])
+				{
+					visitor.gained(ids[i]);
+				}
+				i++;
+				j++;
+			}
+		}
+	}
+
+	/**
+	 * Receives items gained between two snapshots
+	 */
+	public interface GainVisitor
+	{
+		void gained(int itemId);
+	}
+}
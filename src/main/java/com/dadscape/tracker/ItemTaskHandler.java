@@ -0,0 +1,115 @@
+package com.dadscape.tracker;
+
+import com.dadscape.model.TaskType;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.gameval.InventoryID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks ITEM tasks through a hash index from item ids to the tasks that list them.
+ * Equipped tasks only count the equipment, and all-items tasks require every listed
+ * item at once (e.g. a full armour set) rather than any of them.
+ */
+@Slf4j
+public class ItemTaskHandler implements TaskHandler
+{
+	private static final Set<TaskType> TASK_TYPES = EnumSet.of(TaskType.ITEM);
+
+	private final Map<Integer, List<CompiledItemTask>> tasksByItem = new HashMap<>();
+
+	@Override
+	public Set<TaskType> getTaskTypes()
+	{
+		return TASK_TYPES;
+	}
+
+	@Override
+	public Set<Class<? extends TrackerEvent>> getEventTypes()
+	{
+		return Collections.singleton(ItemEvent.class);
+	}
+
+	@Override
+	public void rebuild(List<CompiledTask> tasks)
+	{
+		tasksByItem.clear();
+		for (CompiledTask task : tasks)
+		{
+			CompiledItemTask item = (CompiledItemTask) task;
+			for (int id : item.getItemIds())
+			{
+				tasksByItem.computeIfAbsent(id, k -> new ArrayList<>()).add(item);
+			}
+		}
+
+		log.debug("Indexed ITEM tasks for {} item ids", tasksByItem.size());
+	}
+
+	@Override
+	public boolean isTracking()
+	{
+		return !tasksByItem.isEmpty();
+	}
+
+	@Override
+	public void handle(TrackerEvent event, ProgressSink sink)
+	{
+		ItemEvent item = (ItemEvent) event;
+		List<CompiledItemTask> tasks = tasksByItem.get(item.getItemId());
+		if (tasks == null)
+		{
+			return;
+		}
+
+		ItemSnapshot container = item.getContainer();
+		for (CompiledItemTask task : tasks)
+		{
+			if (task.isEquipped() && item.getContainerId() != InventoryID.WORN)
+			{
+				continue;
+			}
+
+			TrackedTask tracked = task.getTracked();
+			if (task.isAllItems())
+			{
+				if (holdsAll(container, task.getItemIds()))
+				{
+					sink.setProgress(tracked, tracked.getTarget());
+				}
+			}
+			else
+			{
+				sink.setProgress(tracked, quantityOf(container, task.getItemIds()));
+			}
+		}
+	}
+
+	private static boolean holdsAll(ItemSnapshot container, int[] itemIds)
+	{
+		for (int id : itemIds)
+		{
+			if (container.getQuantity(id) <= 0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int quantityOf(ItemSnapshot container, int[] itemIds)
+	{
+		int total = 0;
+		for (int id : itemIds)
+		{
+			total += container.getQuantity(id);
+		}
+		return total;
+	}
+}
@@ -0,0 +1,14 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+/**
+ * Kills of one NPC by the local player during a game tick
+ */
+@Value
+public class KillEvent implements TrackerEvent
+{
+	int npcId;
+	String npcName;
+	int count;
+}
@@ -0,0 +1,116 @@
+package com.dadscape.tracker;
+
+import com.dadscape.model.TaskType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks KILL tasks through a dispatch index from NPCs to the tasks that count them.
+ * Tasks are keyed by NPC id when set, otherwise by the case-folded NPC name.
+ * Lookups are memoized per NPC id, so repeat kills cost a single hash lookup.
+ */
+@Slf4j
+public class KillTaskHandler implements TaskHandler
+{
+	private static final Set<TaskType> TASK_TYPES = EnumSet.of(TaskType.KILL);
+
+	private final Map<Integer, List<TrackedTask>> tasksById = new HashMap<>();
+	private final Map<String, List<TrackedTask>> tasksByName = new HashMap<>();
+	private final Map<Integer, List<TrackedTask>> resolved = new HashMap<>();
+
+	@Override
+	public Set<TaskType> getTaskTypes()
+	{
+		return TASK_TYPES;
+	}
+
+	@Override
+	public Set<Class<? extends TrackerEvent>> getEventTypes()
+	{
+		return Collections.singleton(KillEvent.class);
+	}
+
+	@Override
+	public void rebuild(List<CompiledTask> tasks)
+	{
+		tasksById.clear();
+		tasksByName.clear();
+		resolved.clear();
+
+		for (CompiledTask task : tasks)
+		{
+			CompiledKillTask kill = (CompiledKillTask) task;
+			if (kill.getNpcId() != CompiledKillTask.ANY_NPC_ID)
+			{
+				tasksById.computeIfAbsent(kill.getNpcId(), k -> new ArrayList<>()).add(kill.getTracked());
+			}
+			else
+			{
+				tasksByName.computeIfAbsent(kill.getNpcKey(), k -> new ArrayList<>()).add(kill.getTracked());
+			}
+		}
+
+		log.debug("Indexed KILL tasks for {} NPC ids and {} NPC names", tasksById.size(), tasksByName.size());
+	}
+
+	@Override
+	public boolean isTracking()
+	{
+		return !tasksById.isEmpty() || !tasksByName.isEmpty();
+	}
+
+	@Override
+	public void handle(TrackerEvent event, ProgressSink sink)
+	{
+		KillEvent kill = (KillEvent) event;
+		for (TrackedTask tracked : lookup(kill.getNpcId(), kill.getNpcName()))
+		{
+			sink.advance(tracked, kill.getCount());
+		}
+	}
+
+	/**
+	 * Get the tasks tracking a kill of the given NPC
+	 */
+	List<TrackedTask> lookup(int npcId, String npcName)
+	{
+		List<TrackedTask> tasks = resolved.get(npcId);
+		if (tasks != null)
+		{
+			return tasks;
+		}
+
+		List<TrackedTask> byId = tasksById.get(npcId);
+		List<TrackedTask> byName = npcName != null ? tasksByName.get(npcName.toLowerCase(Locale.ROOT)) : null;
+
+		if (byId == null && byName == null)
+		{
+			tasks = Collections.emptyList();
+		}
+		else if (byName == null)
+		{
+			tasks = byId;
+		}
+		else if (byId == null)
+		{
+			tasks = byName;
+		}
+		else
+		{
+			tasks = new ArrayList<>(byId.size() + byName.size());
+			tasks.addAll(byId);
+			tasks.addAll(byName);
+		}
+
+		resolved.put(npcId, tasks);
+		return tasks;
+	}
+}
@@ -0,0 +1,15 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+/**
+ * The local player's world tile at the end of a game tick
+ */
+@Value
+public class LocationEvent implements TrackerEvent
+{
+	int x;
+	int y;
+	int plane;
+	int regionId;
+}
@@ -0,0 +1,113 @@
+package com.dadscape.tracker;
+
+import com.dadscape.model.TaskType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks LOCATION tasks through a spatial index from map regions to target areas.
+ * Areas are whole regions or polygons of world tiles. Each area is filed under every
+ * region it overlaps, so a position check only tests the areas in the player's current region.
+ */
+@Slf4j
+public class LocationTaskHandler implements TaskHandler
+{
+	private static final Set<TaskType> TASK_TYPES = EnumSet.of(TaskType.LOCATION);
+
+	private final Map<Integer, List<CompiledLocationTask>> areasByRegion = new HashMap<>();
+
+	@Override
+	public Set<TaskType> getTaskTypes()
+	{
+		return TASK_TYPES;
+	}
+
+	@Override
+	public Set<Class<? extends TrackerEvent>> getEventTypes()
+	{
+		return Collections.singleton(LocationEvent.class);
+	}
+
+	@Override
+	public void rebuild(List<CompiledTask> tasks)
+	{
+		areasByRegion.clear();
+		for (CompiledTask task : tasks)
+		{
+			CompiledLocationTask area = (CompiledLocationTask) task;
+			if (area.getRegionIds() != null)
+			{
+				for (int regionId : area.getRegionIds())
+				{
+					file(regionId, area);
+				}
+			}
+			else
+			{
+				fileByBounds(area);
+			}
+		}
+
+		log.debug("Indexed LOCATION tasks across {} regions", areasByRegion.size());
+	}
+
+	@Override
+	public boolean isTracking()
+	{
+		return !areasByRegion.isEmpty();
+	}
+
+	@Override
+	public void handle(TrackerEvent event, ProgressSink sink)
+	{
+		LocationEvent location = (LocationEvent) event;
+		List<CompiledLocationTask> candidates = areasByRegion.get(location.getRegionId());
+		if (candidates == null)
+		{
+			return;
+		}
+
+		for (CompiledLocationTask area : candidates)
+		{
+			if (area.contains(location.getX(), location.getY(), location.getPlane()))
+			{
+				sink.setProgress(area.getTracked(), 1);
+			}
+		}
+	}
+
+	private void fileByBounds(CompiledLocationTask area)
+	{
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (int i = 0; i < area.getXs().length; i++)
+		{
+			minX = Math.min(minX, area.getXs()[i]);
+			maxX = Math.max(maxX, area.getXs()[i]);
+			minY = Math.min(minY, area.getYs()[i]);
+			maxY = Math.max(maxY, area.getYs()[i]);
+		}
+
+		for (int regionX = minX >> 6; regionX <= maxX >> 6; regionX++)
+		{
+			for (int regionY = minY >> 6; regionY <= maxY >> 6; regionY++)
+			{
+				file((regionX << 8) | regionY, area);
+			}
+		}
+	}
+
+	private void file(int regionId, CompiledLocationTask area)
+	{
+		areasByRegion.computeIfAbsent(regionId, k -> new ArrayList<>()).add(area);
+	}
+}
@@ -0,0 +1,40 @@
+package com.dadscape.tracker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Cache of compiled, case-insensitive chat regexes.
+ * Patterns are compiled once and reused across diary versions as long as their
+ * source is unchanged; patterns no longer used by any task are evicted on recompile.
+ * Each TaskHandlerRegistry owns one, filled and trimmed only by the thread that rebuilds it.
+ */
+public final class PatternCache
+{
+	private final Map<String, Pattern> patterns = new HashMap<>();
+
+	/**
+	 * Get the compiled pattern for a regex, compiling it on first use
+	 */
+	public Pattern get(String regex) throws PatternSyntaxException
+	{
+		Pattern pattern = patterns.get(regex);
+		if (pattern == null)
+		{
+			pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+			patterns.put(regex, pattern);
+		}
+		return pattern;
+	}
+
+	/**
+	 * Evict every pattern whose source is not in use
+	 */
+	public void retain(Set<String> inUse)
+	{
+		patterns.keySet().retainAll(inUse);
+	}
+}
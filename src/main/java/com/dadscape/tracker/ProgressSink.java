@@ -0,0 +1,17 @@
+package com.dadscape.tracker;
+
+/**
+ * Applies task handler results to the current player's progress
+ */
+public interface ProgressSink
+{
+	/**
+	 * Add to a task's progress, completing it once the target is reached
+	 */
+	void advance(TrackedTask task, int amount);
+
+	/**
+	 * Set a task's progress to an absolute value, completing it once the target is reached
+	 */
+	void setProgress(TrackedTask task, int value);
+}
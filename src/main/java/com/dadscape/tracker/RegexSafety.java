@@ -0,0 +1,178 @@
+package com.dadscape.tracker;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Static check for regexes prone to catastrophic backtracking.
+ * Flags an unbounded quantifier applied to a group that itself contains an
+ * unbounded quantifier, e.g. "(a+)+" or "(.*x)*", which can take exponential
+ * time on a message that almost matches. Conservative by design: safe patterns
+ * can always be rewritten without the nesting.
+ */
+final class RegexSafety
+{
+	private RegexSafety()
+	{
+	}
+
+	/**
+	 * Describe why the regex risks catastrophic backtracking, or null if it looks safe
+	 */
+	static String findProblem(String regex)
+	{
+		// Per open group: whether it contains an unbounded quantifier
+		Deque<boolean[]> groups = new ArrayDeque<>();
+		groups.push(new boolean[1]);
+
+		int i = 0;
+		while (i < regex.length())
+		{
+			char c = regex.charAt(i);
+			if (c == '\\')
+			{
+				i = skipEscape(regex, i);
+			}
+			else if (c == '[')
+			{
+				i = skipClass(regex, i);
+			}
+			else if (c == '(')
+			{
+				groups.push(new boolean[1]);
+				i = skipGroupPrefix(regex, i + 1);
+				continue;
+			}
+			else if (c == ')')
+			{
+				if (groups.size() == 1)
+				{
+					return null;
+				}
+
+				boolean nested = groups.pop()[0];
+				int end = i + 1;
+				if (isUnbounded(regex, end))
+				{
+					if (nested)
+					{
+						return "nested repetition near '" + regex.substring(Math.max(0, i - 10), Math.min(regex.length(), end + 1)) + "'";
+					}
+					groups.peek()[0] = true;
+				}
+				else if (nested)
+				{
+					groups.peek()[0] = true;
+				}
+				i = end;
+				continue;
+			}
+			else
+			{
+				i++;
+			}
+
+			if (isUnbounded(regex, i))
+			{
+				groups.peek()[0] = true;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Check for a '*', '+' or '{n,}' quantifier at the position
+	 */
+	private static boolean isUnbounded(String regex, int i)
+	{
+		if (i >= regex.length())
+		{
+			return false;
+		}
+
+		char c = regex.charAt(i);
+		if (c == '*' || c == '+')
+		{
+			return true;
+		}
+
+		if (c == '{')
+		{
+			int close = regex.indexOf('}', i);
+			return close > 0 && regex.charAt(close - 1) == ',';
+		}
+		return false;
+	}
+
+	private static int skipEscape(String regex, int i)
+	{
+		if (i + 1 < regex.length() && regex.charAt(i + 1) == 'Q')
+		{
+			int end = regex.indexOf("\\E", i + 2);
+			return end < 0 ? regex.length() : end + 2;
+		}
+		return i + 2;
+	}
+
+	private static int skipClass(String regex, int i)
+	{
+		int depth = 0;
+		while (i < regex.length())
+		{
+			char c = regex.charAt(i);
+			if (c == '\\')
+			{
+				i += 2;
+				continue;
+			}
+
+			if (c == '[')
+			{
+				depth++;
+			}
+			else if (c == ']' && --depth == 0)
+			{
+				return i + 1;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Skip "?:", "?<name>", "?=", "?<!", "?i:" and similar group prefixes
+	 */
+	private static int skipGroupPrefix(String regex, int i)
+	{
+		if (i >= regex.length() || regex.charAt(i) != '?')
+		{
+			return i;
+		}
+
+		i++;
+		if (i < regex.length() && regex.charAt(i) == '<' && i + 1 < regex.length()
+			&& regex.charAt(i + 1) != '=' && regex.charAt(i + 1) != '!')
+		{
+			int end = regex.indexOf('>', i);
+			return end < 0 ? regex.length() : end + 1;
+		}
+
+		while (i < regex.length() && "<=!>:".indexOf(regex.charAt(i)) < 0 && regex.charAt(i) != ')')
+		{
+			i++;
+		}
+
+		// Leave a closing ')' of inline flags like "(?i)" for the caller
+		if (i < regex.length() && regex.charAt(i) == ')')
+		{
+			return i;
+		}
+
+		while (i < regex.length() && "<=!>:".indexOf(regex.charAt(i)) >= 0)
+		{
+			i++;
+		}
+		return i;
+	}
+}
@@ -0,0 +1,130 @@
+package com.dadscape.tracker;
+
+import com.dadscape.model.TaskType;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Tracks SKILL tasks from the player's real levels.
+ * Each skill gets a sorted array of distinct level thresholds, so a level-up
+ * binary-searches for the thresholds it newly satisfies instead of scanning tasks.
+ */
+@Slf4j
+public class SkillTaskHandler implements TaskHandler
+{
+	private static final Set<TaskType> TASK_TYPES = EnumSet.of(TaskType.SKILL);
+
+	private final Map<Skill, Thresholds> thresholds = new EnumMap<>(Skill.class);
+
+	// Per skill, how many thresholds have already been applied
+	private final int[] applied = new int[Skill.values().length];
+
+	@Override
+	public Set<TaskType> getTaskTypes()
+	{
+		return TASK_TYPES;
+	}
+
+	@Override
+	public Set<Class<? extends TrackerEvent>> getEventTypes()
+	{
+		return Collections.singleton(StatEvent.class);
+	}
+
+	@Override
+	public void rebuild(List<CompiledTask> tasks)
+	{
+		Map<Skill, TreeMap<Integer, List<TrackedTask>>> byLevel = new EnumMap<>(Skill.class);
+		for (CompiledTask task : tasks)
+		{
+			CompiledSkillTask skill = (CompiledSkillTask) task;
+			byLevel.computeIfAbsent(skill.getSkill(), k -> new TreeMap<>())
+				.computeIfAbsent(skill.getTracked().getTarget(), k -> new ArrayList<>())
+				.add(skill.getTracked());
+		}
+
+		thresholds.clear();
+		for (Map.Entry<Skill, TreeMap<Integer, List<TrackedTask>>> entry : byLevel.entrySet())
+		{
+			thresholds.put(entry.getKey(), new Thresholds(entry.getValue()));
+		}
+
+		// Thresholds moved, so the next event for each skill re-checks from the start
+		Arrays.fill(applied, 0);
+
+		log.debug("Indexed SKILL task thresholds for {} skills", thresholds.size());
+	}
+
+	@Override
+	public boolean isTracking()
+	{
+		return !thresholds.isEmpty();
+	}
+
+	@Override
+	public void handle(TrackerEvent event, ProgressSink sink)
+	{
+		StatEvent stat = (StatEvent) event;
+		Thresholds skillThresholds = thresholds.get(stat.getSkill());
+		if (skillThresholds == null)
+		{
+			return;
+		}
+
+		int ordinal = stat.getSkill().ordinal();
+		int satisfied = skillThresholds.countSatisfied(stat.getLevel());
+		int from = stat.isBackfill() || satisfied < applied[ordinal] ? 0 : applied[ordinal];
+
+		for (int i = from; i < satisfied; i++)
+		{
+			for (TrackedTask tracked : skillThresholds.tasks[i])
+			{
+				sink.setProgress(tracked, stat.getLevel());
+			}
+		}
+
+		applied[ordinal] = satisfied;
+	}
+
+	/**
+	 * Distinct level thresholds for one skill, ascending, with the tasks at each
+	 */
+	private static class Thresholds
+	{
+		private final int[] levels;
+		private final TrackedTask[][] tasks;
+
+		Thresholds(TreeMap<Integer, List<TrackedTask>> byLevel)
+		{
+			levels = new int[byLevel.size()];
+			tasks = new TrackedTask[byLevel.size()][];
+
+			int i = 0;
+			for (Map.Entry<Integer, List<TrackedTask>> entry : byLevel.entrySet())
+			{
+				levels[i] = entry.getKey();
+				tasks[i] = entry.getValue().toArray(new TrackedTask[0]);
+				i++;
+			}
+		}
+
+		/**
+		 * Number of thresholds at or below the level
+		 */
+		int countSatisfied(int level)
+		{
+			int i = Arrays.binarySearch(levels, level);
+			return i >= 0 ? i + 1 : -(i + 1);
+		}
+	}
+}
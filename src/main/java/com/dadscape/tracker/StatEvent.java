@@ -0,0 +1,16 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+import net.runelite.api.Skill;
+
+/**
+ * The local player's real level in a skill.
+ * Back-fill events re-check every threshold instead of only newly crossed ones.
+ */
+@Value
+public class StatEvent implements TrackerEvent
+{
+	Skill skill;
+	int level;
+	boolean backfill;
+}
@@ -0,0 +1,457 @@
+package com.dadscape.tracker;
+
+import com.dadscape.model.ClanDiary;
+import com.dadscape.model.DiaryTask;
+import com.dadscape.model.DiaryTier;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles diary task requirements into immutable, typed tasks.
+ * All requirement parsing and validation happens here, when diaries are loaded or
+ * edited, so a malformed requirement is reported once instead of on every event.
+ * Tasks without tracking requirements are manual and compile to nothing.
+ */
+@Slf4j
+public final class TaskCompiler
+{
+	private static final int MAX_LEVEL = 99;
+
+	private TaskCompiler()
+	{
+	}
+
+	/**
+	 * Compile every trackable task in the diaries, logging and skipping invalid ones.
+	 * Chat regexes come from the given cache, which is trimmed to the ones still in use.
+	 */
+	public static List<CompiledTask> compile(List<ClanDiary> diaries, PatternCache patterns)
+	{
+		List<CompiledTask> compiled = new ArrayList<>();
+		List<String> errors = new ArrayList<>();
+
+		for (ClanDiary diary : diaries)
+		{
+			errors.clear();
+			compile(diary, patterns, compiled, errors);
+			for (String error : errors)
+			{
+				log.warn("Skipping task in diary '{}': {}", diary.getName(), error);
+			}
+		}
+
+		// Drop cached regexes that no task uses anymore
+		Set<String> regexes = new HashSet<>();
+		for (CompiledTask task : compiled)
+		{
+			if (task instanceof CompiledChatTask && ((CompiledChatTask) task).getRegex() != null)
+			{
+				regexes.add(((CompiledChatTask) task).getRegex().pattern());
+			}
+		}
+		patterns.retain(regexes);
+
+		return compiled;
+	}
+
+	/**
+	 * Validate every task in a diary, returning one message per invalid task
+	 */
+	public static List<String> validate(ClanDiary diary)
+	{
+		List<String> errors = new ArrayList<>();
+		// A throwaway cache, so validating an edit never evicts the tracker's patterns
+		compile(diary, new PatternCache(), new ArrayList<>(), errors);
+		return errors;
+	}
+
+	private static void compile(ClanDiary diary, PatternCache patterns, List<CompiledTask> compiled, List<String> errors)
+	{
+		if (diary.getTiers() == null)
+		{
+			return;
+		}
+
+		for (DiaryTier tier : diary.getTiers())
+		{
+			if (tier.getTasks() == null)
+			{
+				continue;
+			}
+
+			for (DiaryTask task : tier.getTasks())
+			{
+				if (task.getType() == null)
+				{
+					if (task.getUnknownType() != null)
+					{
+						log.warn("Skipping task '{}' in diary '{}': unknown task type {}", task.getDescription(), diary.getName(), task.getUnknownType());
+					}
+					continue;
+				}
+
+				try
+				{
+					CompiledTask result = compile(diary, tier, task, patterns);
+					if (result != null)
+					{
+						compiled.add(result);
+					}
+				}
+				catch (IllegalArgumentException e)
+				{
+					errors.add(String.format("%s tier, task '%s': %s", tier.getTierName(), task.getDescription(), e.getMessage()));
+				}
+			}
+		}
+	}
+
+	private static CompiledTask compile(ClanDiary diary, DiaryTier tier, DiaryTask task, PatternCache patterns)
+	{
+		switch (task.getType())
+		{
+			case KILL:
+				return compileKill(diary, tier, task);
+			case CUSTOM:
+				return compileChat(diary, tier, task, patterns);
+			case SKILL:
+				return compileSkill(diary, tier, task);
+			case ITEM:
+				return compileItem(diary, tier, task);
+			case LOCATION:
+				return compileLocation(diary, tier, task);
+			case BOSS:
+				return compileBoss(diary, tier, task);
+			case QUEST:
+			case MINIGAME:
+				return compileVar(diary, tier, task);
+			default:
+				return null;
+		}
+	}
+
+	private static CompiledTask compileKill(ClanDiary diary, DiaryTier tier, DiaryTask task)
+	{
+		String npcId = requirement(task, "npcId");
+		String npcName = requirement(task, "npc");
+		if (npcId == null && npcName == null)
+		{
+			return null;
+		}
+
+		TrackedTask tracked = track(diary, tier, task, positive(task, "count", "Count"));
+		if (npcId != null)
+		{
+			return new CompiledKillTask(tracked, nonNegative(npcId, "NPC ID"), null);
+		}
+		return new CompiledKillTask(tracked, CompiledKillTask.ANY_NPC_ID, npcName.toLowerCase(Locale.ROOT));
+	}
+
+	private static CompiledTask compileChat(ClanDiary diary, DiaryTier tier, DiaryTask task, PatternCache patterns)
+	{
+		String pattern = requirement(task, "chatPattern");
+		String regex = requirement(task, "chatRegex");
+		if (pattern == null && regex == null)
+		{
+			return null;
+		}
+
+		if (pattern != null && regex != null)
+		{
+			throw new IllegalArgumentException("set either a chat pattern or a chat regex, not both");
+		}
+
+		TrackedTask tracked = track(diary, tier, task, positive(task, "count", "Count"));
+
+		// Plain text goes to the substring matcher; '*' wildcards become a regex
+		if (pattern != null && pattern.indexOf('*') < 0)
+		{
+			return new CompiledChatTask(tracked, pattern.toLowerCase(Locale.ROOT), null, false);
+		}
+
+		if (regex == null)
+		{
+			regex = wildcardToRegex(pattern);
+		}
+
+		String problem = RegexSafety.findProblem(regex);
+		if (problem != null)
+		{
+			throw new IllegalArgumentException("chat regex could backtrack catastrophically (" + problem + ")");
+		}
+
+		try
+		{
+			boolean capturesCount = regex.contains("(?<" + CompiledChatTask.COUNT_GROUP + ">");
+			return new CompiledChatTask(tracked, null, patterns.get(regex), capturesCount);
+		}
+		catch (PatternSyntaxException e)
+		{
+			throw new IllegalArgumentException("invalid chat regex: " + e.getDescription());
+		}
+	}
+
+	private static CompiledTask compileSkill(ClanDiary diary, DiaryTier tier, DiaryTask task)
+	{
+		String skillName = requirement(task, "skill");
+		String level = requirement(task, "level");
+		if (skillName == null && level == null)
+		{
+			return null;
+		}
+
+		if (skillName == null)
+		{
+			throw new IllegalArgumentException("a skill is required");
+		}
+
+		Skill skill = parseSkill(skillName);
+		if (skill == null)
+		{
+			throw new IllegalArgumentException("unknown skill '" + skillName + "'");
+		}
+
+		int target = positive(task, "level", "Level");
+		if (target > MAX_LEVEL)
+		{
+			throw new IllegalArgumentException("Level must be at most " + MAX_LEVEL);
+		}
+
+		return new CompiledSkillTask(track(diary, tier, task, target), skill);
+	}
+
+	private static CompiledTask compileItem(ClanDiary diary, DiaryTier tier, DiaryTask task)
+	{
+		String itemIds = requirement(task, "itemIds");
+		if (itemIds == null)
+		{
+			return null;
+		}
+
+		String[] parts = itemIds.split(",");
+		int[] ids = new int[parts.length];
+		for (int i = 0; i < parts.length; i++)
+		{
+			ids[i] = nonNegative(parts[i].trim(), "Item ID");
+		}
+
+		int target = requirement(task, "count") == null ? 1 : positive(task, "count", "Count");
+		return new CompiledItemTask(
+			track(diary, tier, task, target),
+			ids,
+			"true".equalsIgnoreCase(requirement(task, "equipped")),
+			"true".equalsIgnoreCase(requirement(task, "allItems"))
+		);
+	}
+
+	private static CompiledTask compileLocation(ClanDiary diary, DiaryTier tier, DiaryTask task)
+	{
+		TrackedTask tracked = track(diary, tier, task, 1);
+
+		String regionIds = requirement(task, "regionId");
+		if (regionIds != null)
+		{
+			int[] regions = parseInts(regionIds.split(","), "Region ID");
+			return new CompiledLocationTask(tracked, regions, null, null, CompiledLocationTask.ANY_PLANE);
+		}
+
+		String rectangle = requirement(task, "area");
+		if (rectangle != null)
+		{
+			int[] values = parseInts(rectangle.split(","), "Area");
+			if (values.length != 4 && values.length != 5)
+			{
+				throw new IllegalArgumentException("Area must be x1,y1,x2,y2[,plane]");
+			}
+
+			int minX = Math.min(values[0], values[2]);
+			int maxX = Math.max(values[0], values[2]);
+			int minY = Math.min(values[1], values[3]);
+			int maxY = Math.max(values[1], values[3]);
+			int plane = values.length == 5 ? values[4] : CompiledLocationTask.ANY_PLANE;
+			return new CompiledLocationTask(tracked, null, new int[]{minX, maxX, maxX, minX}, new int[]{minY, minY, maxY, maxY}, plane);
+		}
+
+		String polygon = requirement(task, "polygon");
+		if (polygon != null)
+		{
+			String[] points = polygon.split(";");
+			int plane = CompiledLocationTask.ANY_PLANE;
+			int count = points.length;
+			if (!points[count - 1].contains(","))
+			{
+				plane = parseInts(new String[]{points[count - 1]}, "Polygon plane")[0];
+				count--;
+			}
+
+			if (count < 3)
+			{
+				throw new IllegalArgumentException("Polygon needs at least 3 points");
+			}
+
+			int[] xs = new int[count];
+			int[] ys = new int[count];
+			for (int i = 0; i < count; i++)
+			{
+				int[] point = parseInts(points[i].split(","), "Polygon point");
+				if (point.length != 2)
+				{
+					throw new IllegalArgumentException("Polygon points must be x,y");
+				}
+				xs[i] = point[0];
+				ys[i] = point[1];
+			}
+			return new CompiledLocationTask(tracked, null, xs, ys, plane);
+		}
+
+		return null;
+	}
+
+	private static CompiledTask compileBoss(ClanDiary diary, DiaryTier tier, DiaryTask task)
+	{
+		String boss = requirement(task, "boss");
+		if (boss == null)
+		{
+			return null;
+		}
+
+		TrackedTask tracked = track(diary, tier, task, positive(task, "count", "Count"));
+		return new CompiledBossTask(tracked, normalizeBoss(boss));
+	}
+
+	private static CompiledTask compileVar(ClanDiary diary, DiaryTier tier, DiaryTask task)
+	{
+		String varbit = requirement(task, "varbit");
+		String varp = requirement(task, "varp");
+		if (varbit == null && varp == null)
+		{
+			return null;
+		}
+
+		if (varbit != null && varp != null)
+		{
+			throw new IllegalArgumentException("set either a varbit or a varp, not both");
+		}
+
+		// Progress holds the var's current value, so a target of 0 would complete on the first update
+		TrackedTask tracked = track(diary, tier, task, positive(task, "value", "Value"));
+		return varbit != null
+			? new CompiledVarTask(tracked, true, nonNegative(varbit, "Varbit"))
+			: new CompiledVarTask(tracked, false, nonNegative(varp, "Varp"));
+	}
+
+	/**
+	 * Fold a boss name so "The Nightmare", "the  nightmare" and "The Nightmare's" all match
+	 */
+	public static String normalizeBoss(String boss)
+	{
+		String name = boss.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+		if (name.endsWith("'s"))
+		{
+			name = name.substring(0, name.length() - 2);
+		}
+		return name;
+	}
+
+	private static String wildcardToRegex(String pattern)
+	{
+		StringBuilder regex = new StringBuilder();
+		int start = 0;
+		for (int i = pattern.indexOf('*'); i >= 0; i = pattern.indexOf('*', start))
+		{
+			if (i > start)
+			{
+				regex.append(Pattern.quote(pattern.substring(start, i)));
+			}
+			regex.append(".*?");
+			start = i + 1;
+		}
+
+		if (start < pattern.length())
+		{
+			regex.append(Pattern.quote(pattern.substring(start)));
+		}
+		return regex.toString();
+	}
+
+	private static TrackedTask track(ClanDiary diary, DiaryTier tier, DiaryTask task, int target)
+	{
+		return new TrackedTask(diary.getId(), tier.getTierName(), task, target);
+	}
+
+	private static Skill parseSkill(String name)
+	{
+		for (Skill skill : Skill.values())
+		{
+			if (skill.getName().equalsIgnoreCase(name) || skill.name().equals(name.toUpperCase(Locale.ROOT)))
+			{
+				return skill;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get a trimmed requirement, or null if it is missing or blank
+	 */
+	private static String requirement(DiaryTask task, String key)
+	{
+		String value = task.getRequirement(key);
+		if (value == null || value.trim().isEmpty())
+		{
+			return null;
+		}
+		return value.trim();
+	}
+
+	private static int positive(DiaryTask task, String key, String label)
+	{
+		String value = requirement(task, key);
+		if (value == null)
+		{
+			throw new IllegalArgumentException(label + " is required");
+		}
+
+		int parsed = parseInts(new String[]{value}, label)[0];
+		if (parsed <= 0)
+		{
+			throw new IllegalArgumentException(label + " must be greater than 0");
+		}
+		return parsed;
+	}
+
+	private static int nonNegative(String value, String label)
+	{
+		int parsed = parseInts(new String[]{value}, label)[0];
+		if (parsed < 0)
+		{
+			throw new IllegalArgumentException(label + " must not be negative");
+		}
+		return parsed;
+	}
+
+	private static int[] parseInts(String[] parts, String label)
+	{
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++)
+		{
+			try
+			{
+				values[i] = Integer.parseInt(parts[i].trim());
+			}
+			catch (NumberFormatException e)
+			{
+				throw new IllegalArgumentException(label + " must be a whole number, got '" + parts[i].trim() + "'");
+			}
+		}
+		return values;
+	}
+}
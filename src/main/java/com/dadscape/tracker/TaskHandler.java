@@ -0,0 +1,39 @@
+package com.dadscape.tracker;
+
+import com.dadscape.model.TaskType;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Auto-tracking strategy for a task type.
+ * Each handler builds its own lookup structure from its compiled tasks and
+ * only receives the events it subscribes to.
+ */
+public interface TaskHandler
+{
+	/**
+	 * The task types this handler tracks
+	 */
+	Set<TaskType> getTaskTypes();
+
+	/**
+	 * The tracker event classes this handler consumes
+	 */
+	Set<Class<? extends TrackerEvent>> getEventTypes();
+
+	/**
+	 * Rebuild lookup structures from the compiled tasks of this handler's types
+	 */
+	void rebuild(List<CompiledTask> tasks);
+
+	/**
+	 * Check if the last rebuild found any tasks to track
+	 */
+	boolean isTracking();
+
+	/**
+	 * Apply an event of one of the subscribed types
+	 */
+	void handle(TrackerEvent event, ProgressSink sink);
+}
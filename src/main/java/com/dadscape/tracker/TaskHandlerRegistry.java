@@ -0,0 +1,138 @@
+package com.dadscape.tracker;
+
+import com.dadscape.model.TaskType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * Routes tracker events to the task handlers subscribed to them.
+ * To track a new task type, implement TaskHandler and register it in the constructor;
+ * events only reach handlers that subscribed to their class.
+ */
+@Slf4j
+public class TaskHandlerRegistry
+{
+	private final List<TaskHandler> handlers = new ArrayList<>();
+	private final VarTaskHandler varTaskHandler = new VarTaskHandler();
+	private final Map<Class<? extends TrackerEvent>, List<TaskHandler>> routes = new HashMap<>();
+
+	// Chat regexes compiled for this registry's tasks, reused across rebuilds
+	private final PatternCache patternCache = new PatternCache();
+
+	// Event classes with at least one handler that has tasks to track
+	private volatile Set<Class<? extends TrackerEvent>> trackedEvents = Collections.emptySet();
+
+	/**
+	 * @param chatBudgetMillis time budget for matching chat regexes against one message
+	 */
+	public TaskHandlerRegistry(IntSupplier chatBudgetMillis)
+	{
+		register(new KillTaskHandler());
+		register(new CustomTaskHandler(chatBudgetMillis));
+		register(new SkillTaskHandler());
+		register(new ItemTaskHandler());
+		register(new LocationTaskHandler());
+		register(new BossTaskHandler());
+		register(varTaskHandler);
+	}
+
+	private void register(TaskHandler handler)
+	{
+		handlers.add(handler);
+		for (Class<? extends TrackerEvent> eventType : handler.getEventTypes())
+		{
+			routes.computeIfAbsent(eventType, k -> new ArrayList<>()).add(handler);
+		}
+	}
+
+	/**
+	 * Rebuild every handler from the compiled tasks of the active diaries
+	 */
+	public void rebuild(List<CompiledTask> compiled)
+	{
+		Map<TaskType, List<CompiledTask>> byType = new EnumMap<>(TaskType.class);
+		for (CompiledTask task : compiled)
+		{
+			byType.computeIfAbsent(task.getTracked().getTask().getType(), k -> new ArrayList<>()).add(task);
+		}
+
+		Set<Class<? extends TrackerEvent>> tracked = new HashSet<>();
+		for (TaskHandler handler : handlers)
+		{
+			List<CompiledTask> tasks = new ArrayList<>();
+			for (TaskType type : handler.getTaskTypes())
+			{
+				tasks.addAll(byType.getOrDefault(type, Collections.emptyList()));
+			}
+
+			handler.rebuild(tasks);
+			if (handler.isTracking())
+			{
+				tracked.addAll(handler.getEventTypes());
+			}
+		}
+		trackedEvents = tracked;
+
+		log.debug("Rebuilt {} task handlers from {} compiled tasks, tracking {} event types", handlers.size(), compiled.size(), tracked.size());
+	}
+
+	/**
+	 * Cache to compile this registry's chat regexes into, so unchanged patterns survive a rebuild
+	 */
+	public PatternCache getPatternCache()
+	{
+		return patternCache;
+	}
+
+	/**
+	 * Check if any handler is tracking tasks for an event class.
+	 * Safe to call from any thread.
+	 */
+	public boolean isTracking(Class<? extends TrackerEvent> eventType)
+	{
+		return trackedEvents.contains(eventType);
+	}
+
+	/**
+	 * Check if a QUEST or MINIGAME task watches a var.
+	 * Safe to call from any thread.
+	 */
+	public boolean isWatchingVar(boolean varbit, int id)
+	{
+		return varTaskHandler.isWatched(varbit, id);
+	}
+
+	/**
+	 * Visit every var watched by a QUEST or MINIGAME task
+	 */
+	public void forEachWatchedVar(VarTaskHandler.VarVisitor visitor)
+	{
+		varTaskHandler.forEachWatched(visitor);
+	}
+
+	/**
+	 * Route an event to its subscribed handlers
+	 */
+	public void dispatch(TrackerEvent event, ProgressSink sink)
+	{
+		List<TaskHandler> subscribed = routes.get(event.getClass());
+		if (subscribed == null)
+		{
+			return;
+		}
+
+		for (TaskHandler handler : subscribed)
+		{
+			handler.handle(event, sink);
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Everything the local player did in one game tick, with repeats aggregated
+ */
+@Value
+public class TickBatch
+{
+	String rsn;
+	List<TrackerEvent> events;
+}
@@ -0,0 +1,101 @@
+package com.dadscape.tracker;
+
+import net.runelite.api.Skill;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers tracker events for the current game tick and aggregates repeats,
+ * so twelve Skeleton deaths in one tick become a single kill event of twelve.
+ * Only used from the client thread.
+ */
+public class TickBatcher
+{
+	private final Map<Integer, String> killNames = new LinkedHashMap<>();
+	private final Map<Integer, Integer> killCounts = new HashMap<>();
+	private final Map<String, Integer> chatCounts = new LinkedHashMap<>();
+	private final Map<Skill, StatEvent> stats = new EnumMap<>(Skill.class);
+	private final List<TrackerEvent> events = new ArrayList<>();
+
+	/**
+	 * Record an NPC kill
+	 */
+	public void addKill(int npcId, String npcName)
+	{
+		killNames.putIfAbsent(npcId, npcName);
+		killCounts.merge(npcId, 1, Integer::sum);
+	}
+
+	/**
+	 * Record a chat message
+	 */
+	public void addChat(String message)
+	{
+		chatCounts.merge(message, 1, Integer::sum);
+	}
+
+	/**
+	 * Record a skill's real level, keeping only the latest per skill
+	 */
+	public void addStat(Skill skill, int level, boolean backfill)
+	{
+		StatEvent previous = stats.get(skill);
+		stats.put(skill, new StatEvent(skill, level, backfill || (previous != null && previous.isBackfill())));
+	}
+
+	/**
+	 * Record an event that is not aggregated
+	 */
+	public void add(TrackerEvent event)
+	{
+		events.add(event);
+	}
+
+	/**
+	 * Check if anything was recorded this tick
+	 */
+	public boolean isEmpty()
+	{
+		return killNames.isEmpty() && chatCounts.isEmpty() && stats.isEmpty() && events.isEmpty();
+	}
+
+	/**
+	 * Build the batch for this tick and reset for the next one
+	 */
+	public TickBatch drain(String rsn)
+	{
+		List<TrackerEvent> batch = new ArrayList<>(killNames.size() + chatCounts.size() + stats.size() + events.size());
+		for (Map.Entry<Integer, String> entry : killNames.entrySet())
+		{
+			batch.add(new KillEvent(entry.getKey(), entry.getValue(), killCounts.get(entry.getKey())));
+		}
+
+		for (Map.Entry<String, Integer> entry : chatCounts.entrySet())
+		{
+			batch.add(new ChatEvent(entry.getKey(), entry.getValue()));
+		}
+
+		batch.addAll(stats.values());
+		batch.addAll(events);
+
+		clear();
+		return new TickBatch(rsn, batch);
+	}
+
+	/**
+	 * Drop everything recorded this tick
+	 */
+	public void clear()
+	{
+		killNames.clear();
+		killCounts.clear();
+		chatCounts.clear();
+		stats.clear();
+		events.clear();
+	}
+}
@@ -0,0 +1,32 @@
+package com.dadscape.tracker;
+
+import com.dadscape.model.DiaryTask;
+import lombok.Value;
+
+/**
+ * A diary task resolved to its position in the active diary set.
+ * Built by TaskCompiler so event handlers never walk the diary tree.
+ */
+@Value
+public class TrackedTask
+{
+	/**
+	 * ID of the diary that owns the task
+	 */
+	String diaryId;
+
+	/**
+	 * Name of the tier that owns the task
+	 */
+	String tierName;
+
+	/**
+	 * The task itself
+	 */
+	DiaryTask task;
+
+	/**
+	 * Progress value that completes the task
+	 */
+	int target;
+}
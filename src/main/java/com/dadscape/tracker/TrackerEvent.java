@@ -0,0 +1,9 @@
+package com.dadscape.tracker;
+
+/**
+ * An immutable game event handed from the client thread to the tracking worker.
+ * Task handlers subscribe to the concrete event classes they consume.
+ */
+public interface TrackerEvent
+{
+}
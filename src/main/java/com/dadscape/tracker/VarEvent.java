@@ -0,0 +1,19 @@
+package com.dadscape.tracker;
+
+import lombok.Value;
+
+/**
+ * A watched varbit or varp taking a new value
+ */
+@Value
+public class VarEvent implements TrackerEvent
+{
+	/**
+	 * True for a varbit, false for a varp
+	 */
+	boolean varbit;
+
+	int id;
+
+	int value;
+}
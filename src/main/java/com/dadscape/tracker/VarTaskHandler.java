@@ -0,0 +1,126 @@
+package com.dadscape.tracker;
+
+import com.dadscape.model.TaskType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tracks QUEST and MINIGAME tasks from varbit and varp values.
+ * Progress follows the task's varbit or varp until it reaches the completing value.
+ * Vars are indexed by id in primitive maps, so the client thread can drop the many
+ * unwatched var changes with one lookup.
+ */
+@Slf4j
+public class VarTaskHandler implements TaskHandler
+{
+	private static final Set<TaskType> TASK_TYPES = EnumSet.of(TaskType.QUEST, TaskType.MINIGAME);
+
+	// Replaced whole on rebuild, so client thread lookups see a consistent index
+	private volatile VarIndex index = new VarIndex(new IntObjectMap<>(), new IntObjectMap<>());
+
+	@Override
+	public Set<TaskType> getTaskTypes()
+	{
+		return TASK_TYPES;
+	}
+
+	@Override
+	public Set<Class<? extends TrackerEvent>> getEventTypes()
+	{
+		return Collections.singleton(VarEvent.class);
+	}
+
+	@Override
+	public void rebuild(List<CompiledTask> tasks)
+	{
+		IntObjectMap<List<TrackedTask>> varbits = new IntObjectMap<>();
+		IntObjectMap<List<TrackedTask>> varps = new IntObjectMap<>();
+
+		for (CompiledTask task : tasks)
+		{
+			CompiledVarTask var = (CompiledVarTask) task;
+			IntObjectMap<List<TrackedTask>> vars = var.isVarbit() ? varbits : varps;
+			List<TrackedTask> watching = vars.get(var.getVarId());
+			if (watching == null)
+			{
+				watching = new ArrayList<>();
+				vars.put(var.getVarId(), watching);
+			}
+			watching.add(var.getTracked());
+		}
+
+		index = new VarIndex(varbits, varps);
+		log.debug("Indexed QUEST/MINIGAME tasks for {} varbits and {} varps", varbits.size(), varps.size());
+	}
+
+	@Override
+	public boolean isTracking()
+	{
+		VarIndex current = index;
+		return !current.varbits.isEmpty() || !current.varps.isEmpty();
+	}
+
+	@Override
+	public void handle(TrackerEvent event, ProgressSink sink)
+	{
+		VarEvent var = (VarEvent) event;
+		List<TrackedTask> tasks = index.get(var.isVarbit(), var.getId());
+		if (tasks == null)
+		{
+			return;
+		}
+
+		for (TrackedTask tracked : tasks)
+		{
+			sink.setProgress(tracked, var.getValue());
+		}
+	}
+
+	/**
+	 * Check if any task watches a var. Safe to call from any thread.
+	 */
+	public boolean isWatched(boolean varbit, int id)
+	{
+		return index.get(varbit, id) != null;
+	}
+
+	/**
+	 * Visit every watched var, e.g. to read their current values at login
+	 */
+	public void forEachWatched(VarVisitor visitor)
+	{
+		VarIndex current = index;
+		current.varbits.forEachKey(id -> visitor.visit(true, id));
+		current.varps.forEachKey(id -> visitor.visit(false, id));
+	}
+
+	/**
+	 * Receives watched var ids
+	 */
+	public interface VarVisitor
+	{
+		void visit(boolean varbit, int id);
+	}
+
+	private static class VarIndex
+	{
+		private final IntObjectMap<List<TrackedTask>> varbits;
+		private final IntObjectMap<List<TrackedTask>> varps;
+
+		VarIndex(IntObjectMap<List<TrackedTask>> varbits, IntObjectMap<List<TrackedTask>> varps)
+		{
+			this.varbits = varbits;
+			this.varps = varps;
+		}
+
+		List<TrackedTask> get(boolean varbit, int id)
+		{
+			return id < 0 ? null : (varbit ? varbits : varps).get(id);
+		}
+	}
+}
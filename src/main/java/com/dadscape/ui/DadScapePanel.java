@@ -7,6 +7,7 @@ import com.dadscape.manager.PermissionManager;
 import com.dadscape.manager.TaskTracker;
 import com.dadscape.model.ClanDiary;
 import com.dadscape.model.DadCred;
+import com.dadscape.model.DiaryHeader;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.PluginPanel;
@@ -17,6 +18,7 @@ import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Main DadScape panel with two sections:
@@ -66,10 +68,23 @@ public class DadScapePanel extends PluginPanel
 		setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
 		setBackground(ColorScheme.DARK_GRAY_COLOR);
 
+		// Data is filled in by the plugin once startup has loaded it
 		init();
-		refreshDadCred();
-		refreshPermissionStatus();
-		refreshDiaryList();
+		showPlaceholder();
+	}
+
+	/**
+	 * Show a loading message until the first refresh
+	 */
+	private void showPlaceholder()
+	{
+		createDiaryButton.setVisible(false);
+		setMotdButton.setVisible(false);
+
+		JLabel loadingLabel = new JLabel("Loading diaries...");
+		loadingLabel.setForeground(Color.LIGHT_GRAY);
+		loadingLabel.setHorizontalAlignment(SwingConstants.CENTER);
+		diaryListPanel.add(loadingLabel);
 	}
 
 	/**
@@ -330,16 +345,16 @@ public class DadScapePanel extends PluginPanel
 		// Update category filter
 		updateCategoryFilter();
 
-		// Get filtered diaries
-		List<ClanDiary> diaries;
+		// Get filtered diaries; headers are enough to list them
+		List<DiaryHeader> diaries;
 		String selectedCategory = (String) categoryFilter.getSelectedItem();
 		if (selectedCategory == null || selectedCategory.equals("All Categories"))
 		{
-			diaries = diaryManager.getAllDiaries();
+			diaries = diaryManager.getHeaders();
 		}
 		else
 		{
-			diaries = diaryManager.getDiariesByCategory(selectedCategory);
+			diaries = diaryManager.getHeadersByCategory(selectedCategory);
 		}
 
 		// Display diaries
@@ -354,7 +369,7 @@ public class DadScapePanel extends PluginPanel
 		{
 			log.debug("{} diaries found.", diaries.size());
 
-			for (ClanDiary diary : diaries)
+			for (DiaryHeader diary : diaries)
 			{
 				diaryListPanel.add(createDiaryCard(diary));
 			}
@@ -411,7 +426,7 @@ public class DadScapePanel extends PluginPanel
 	/**
 	 * Create a card UI element for a single diary
 	 */
-	private JPanel createDiaryCard(ClanDiary diary)
+	private JPanel createDiaryCard(DiaryHeader diary)
 	{
 		JPanel card = new JPanel();
 		card.setLayout(new BorderLayout());
@@ -439,7 +454,7 @@ public class DadScapePanel extends PluginPanel
 		int completion = taskTracker.getDiaryCompletion(playerName, diary.getId());
 
 		JLabel taskCountLabel = new JLabel(
-			diary.getTotalTaskCount() + " tasks across " + diary.getTiers().size() + " tiers • " +
+			diary.getTaskCount() + " tasks across " + diary.getTierCount() + " tiers • " +
 			completion + "% complete"
 		);
 		taskCountLabel.setForeground(Color.LIGHT_GRAY);
@@ -464,7 +479,7 @@ public class DadScapePanel extends PluginPanel
 		{
 			// Admin buttons
 			JButton editButton = new JButton("Edit");
-			editButton.addActionListener(e -> editDiary(diary));
+			editButton.addActionListener(e -> openDiary(diary, this::editDiary));
 			buttonPanel.add(editButton);
 
 			JButton deleteButton = new JButton("Delete");
@@ -474,7 +489,7 @@ public class DadScapePanel extends PluginPanel
 
 		// User button - view details
 		JButton viewButton = new JButton("View Details");
-		viewButton.addActionListener(e -> viewDiary(diary));
+		viewButton.addActionListener(e -> openDiary(diary, this::viewDiary));
 		buttonPanel.add(viewButton);
 
 		card.add(buttonPanel, BorderLayout.SOUTH);
@@ -536,22 +551,39 @@ public class DadScapePanel extends PluginPanel
 			return;
 		}
 
-		// Open diary editor dialog
+		// Open diary editor dialog on a copy, so tracking never sees a half-edited diary
 		String playerName = permissionManager.getPlayerName();
 		DiaryEditorDialog editor = new DiaryEditorDialog(
 			(JFrame) SwingUtilities.getWindowAncestor(this),
 			diaryManager,
-			diary,
+			diary.copy(),
 			playerName,
 			this::refreshDiaryList
 		);
 		editor.setVisible(true);
 	}
 
+	/**
+	 * Load a diary's tiers and tasks, then open it
+	 */
+	private void openDiary(DiaryHeader header, Consumer<ClanDiary> open)
+	{
+		ClanDiary diary = diaryManager.getDiaryById(header.getId());
+		if (diary == null)
+		{
+			JOptionPane.showMessageDialog(this,
+				"Diary '" + header.getName() + "' could not be loaded.",
+				"Error",
+				JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		open.accept(diary);
+	}
+
 	/**
 	 * Delete a diary
 	 */
-	private void deleteDiary(ClanDiary diary)
+	private void deleteDiary(DiaryHeader diary)
 	{
 		int confirm = JOptionPane.showConfirmDialog(this,
 			"Are you sure you want to delete '" + diary.getName() + "'?\nThis cannot be undone.",
@@ -5,6 +5,7 @@ import com.dadscape.model.ClanDiary;
 import com.dadscape.model.DiaryTask;
 import com.dadscape.model.DiaryTier;
 import com.dadscape.model.TaskType;
+import com.dadscape.tracker.TaskCompiler;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.ui.ColorScheme;
 
@@ -235,6 +236,19 @@ public class DiaryEditorDialog extends JDialog
 			diary.getTiers().add(tier);
 		}
 
+		// Reject tasks whose requirements could not be tracked
+		List<String> errors = TaskCompiler.validate(diary);
+		if (!errors.isEmpty())
+		{
+			JOptionPane.showMessageDialog(
+				this,
+				"Please fix these task requirements:\n\n" + String.join("\n", errors),
+				"Invalid Requirements",
+				JOptionPane.ERROR_MESSAGE
+			);
+			return;
+		}
+
 		// Increment version and update modified info
 		diary.incrementVersion();
 		diary.setLastModifiedBy(lastModifiedBy);
@@ -495,6 +509,31 @@ public class DiaryEditorDialog extends JDialog
 				requirementsPanel.add(npcPanel);
 				requirementsPanel.add(Box.createRigidArea(new Dimension(0, 2)));
 
+				// Optional NPC ID field (more precise than the name)
+				JPanel npcIdPanel = new JPanel(new BorderLayout(5, 0));
+				npcIdPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+				npcIdPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 25));
+
+				JLabel npcIdLabel = new JLabel("NPC ID:");
+				npcIdLabel.setForeground(Color.LIGHT_GRAY);
+				npcIdLabel.setPreferredSize(new Dimension(60, 20));
+				npcIdLabel.setToolTipText("Optional NPC ID; when set, only this NPC ID counts");
+				npcIdPanel.add(npcIdLabel, BorderLayout.WEST);
+
+				JTextField npcIdField = new JTextField(task.getRequirement("npcId"));
+				npcIdField.setToolTipText("Optional NPC ID; when set, only this NPC ID counts");
+				npcIdField.addFocusListener(new java.awt.event.FocusAdapter()
+				{
+					public void focusLost(java.awt.event.FocusEvent evt)
+					{
+						task.addRequirement("npcId", npcIdField.getText());
+					}
+				});
+				npcIdPanel.add(npcIdField, BorderLayout.CENTER);
+
+				requirementsPanel.add(npcIdPanel);
+				requirementsPanel.add(Box.createRigidArea(new Dimension(0, 2)));
+
 				// Kill count field
 				JPanel countPanel = new JPanel(new BorderLayout(5, 0));
 				countPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
@@ -569,6 +608,37 @@ public class DiaryEditorDialog extends JDialog
 
 				requirementsPanel.add(levelPanel);
 			}
+			else if (type == TaskType.ITEM)
+			{
+				addRequirementField("Items:", "itemIds", "Item IDs, comma separated (e.g., '11832, 11834, 11836')");
+				requirementsPanel.add(Box.createRigidArea(new Dimension(0, 2)));
+				addRequirementField("Count:", "count", "Quantity to hold (default 1)");
+				requirementsPanel.add(Box.createRigidArea(new Dimension(0, 2)));
+				addRequirementCheckBox("Must be equipped", "equipped");
+				addRequirementCheckBox("Require all items at once", "allItems");
+			}
+			else if (type == TaskType.LOCATION)
+			{
+				addRequirementField("Region:", "regionId", "Region IDs, comma separated (e.g., '10288')");
+				requirementsPanel.add(Box.createRigidArea(new Dimension(0, 2)));
+				addRequirementField("Area:", "area", "Or a rectangle of world tiles: x1,y1,x2,y2[,plane]");
+				requirementsPanel.add(Box.createRigidArea(new Dimension(0, 2)));
+				addRequirementField("Polygon:", "polygon", "Or polygon points: x1,y1;x2,y2;x3,y3[;plane]");
+			}
+			else if (type == TaskType.BOSS)
+			{
+				addRequirementField("Boss:", "boss", "Boss name as shown in its kill count message (e.g., 'Zulrah')");
+				requirementsPanel.add(Box.createRigidArea(new Dimension(0, 2)));
+				addRequirementField("Count:", "count", "Kill count to reach");
+			}
+			else if (type == TaskType.QUEST || type == TaskType.MINIGAME)
+			{
+				addRequirementField("Varbit:", "varbit", "Varbit ID that tracks this task");
+				requirementsPanel.add(Box.createRigidArea(new Dimension(0, 2)));
+				addRequirementField("Varp:", "varp", "Or a varp ID, if the task is tracked by a varp");
+				requirementsPanel.add(Box.createRigidArea(new Dimension(0, 2)));
+				addRequirementField("Value:", "value", "Var value that marks the task complete");
+			}
 			else if (type == TaskType.CUSTOM)
 			{
 				// Chat pattern field (for tracking via chat messages)
@@ -579,7 +649,7 @@ public class DiaryEditorDialog extends JDialog
 				JLabel patternLabel = new JLabel("Chat:");
 				patternLabel.setForeground(Color.LIGHT_GRAY);
 				patternLabel.setPreferredSize(new Dimension(60, 20));
-				patternLabel.setToolTipText("Text to match in chat (e.g., 'You drink the beer')");
+				patternLabel.setToolTipText("Text to match in chat (e.g., 'You drink the beer'); '*' matches anything");
 				patternPanel.add(patternLabel, BorderLayout.WEST);
 
 				JTextField patternField = new JTextField(task.getRequirement("chatPattern"));
@@ -596,6 +666,10 @@ public class DiaryEditorDialog extends JDialog
 				requirementsPanel.add(patternPanel);
 				requirementsPanel.add(Box.createRigidArea(new Dimension(0, 2)));
 
+				// Regex alternative, for variable messages and captured counts
+				addRequirementField("Regex:", "chatRegex", "Or a regex (e.g., 'You (drink|eat) the .*'); a (?<count>\\d+) group adds the captured number");
+				requirementsPanel.add(Box.createRigidArea(new Dimension(0, 2)));
+
 				// Count field
 				JPanel countPanel = new JPanel(new BorderLayout(5, 0));
 				countPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
@@ -623,6 +697,41 @@ public class DiaryEditorDialog extends JDialog
 			requirementsPanel.repaint();
 		}
 
+		private void addRequirementField(String label, String key, String tooltip)
+		{
+			JPanel fieldPanel = new JPanel(new BorderLayout(5, 0));
+			fieldPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+			fieldPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 25));
+
+			JLabel fieldLabel = new JLabel(label);
+			fieldLabel.setForeground(Color.LIGHT_GRAY);
+			fieldLabel.setPreferredSize(new Dimension(60, 20));
+			fieldLabel.setToolTipText(tooltip);
+			fieldPanel.add(fieldLabel, BorderLayout.WEST);
+
+			JTextField field = new JTextField(task.getRequirement(key));
+			field.setToolTipText(tooltip);
+			field.addFocusListener(new java.awt.event.FocusAdapter()
+			{
+				public void focusLost(java.awt.event.FocusEvent evt)
+				{
+					task.addRequirement(key, field.getText());
+				}
+			});
+			fieldPanel.add(field, BorderLayout.CENTER);
+
+			requirementsPanel.add(fieldPanel);
+		}
+
+		private void addRequirementCheckBox(String label, String key)
+		{
+			JCheckBox checkBox = new JCheckBox(label, "true".equalsIgnoreCase(task.getRequirement(key)));
+			checkBox.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+			checkBox.setForeground(Color.LIGHT_GRAY);
+			checkBox.addActionListener(e -> task.addRequirement(key, String.valueOf(checkBox.isSelected())));
+			requirementsPanel.add(checkBox);
+		}
+
 		public DiaryTask getTask()
 		{
 			return task;
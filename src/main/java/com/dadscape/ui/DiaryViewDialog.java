@@ -137,9 +137,9 @@ public class DiaryViewDialog extends JDialog
 		contentPanel.setBorder(new EmptyBorder(BORDER_OFFSET, BORDER_OFFSET, BORDER_OFFSET, BORDER_OFFSET));
 
 		// Display each tier
-		for (DiaryTier tier : diary.getTiers())
+		for (int i = 0; i < diary.getTiers().size(); i++)
 		{
-			JPanel tierPanel = createTierPanel(tier);
+			JPanel tierPanel = createTierPanel(diary.getTiers().get(i), i);
 			contentPanel.add(tierPanel);
 			contentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
 		}
@@ -147,7 +147,7 @@ public class DiaryViewDialog extends JDialog
 		return contentPanel;
 	}
 
-	private JPanel createTierPanel(DiaryTier tier)
+	private JPanel createTierPanel(DiaryTier tier, int tierIndex)
 	{
 		JPanel tierPanel = new JPanel();
 		tierPanel.setLayout(new BoxLayout(tierPanel, BoxLayout.Y_AXIS));
@@ -169,7 +169,7 @@ public class DiaryViewDialog extends JDialog
 
 		TitledBorder border = BorderFactory.createTitledBorder(
 			BorderFactory.createLineBorder(tierColor, 2),
-			tier.getTierName(),
+			tier.getTierName() + " (" + userProgress.getTierCompletedCount(tierIndex) + "/" + tier.getTaskCount() + ")",
 			TitledBorder.LEFT,
 			TitledBorder.TOP,
 			new Font("Arial", Font.BOLD, 14),
@@ -232,11 +232,16 @@ public class DiaryViewDialog extends JDialog
 		JPanel descriptionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
 		descriptionPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
 
-		JLabel typeLabel = new JLabel(task.getType().getDisplayName());
-		typeLabel.setForeground(Color.decode(task.getType().getColorHex()));
+		// Tasks of a type this version does not know show their stored type name
+		String typeName = task.getType() != null ? task.getType().getDisplayName()
+			: task.getUnknownType() != null ? task.getUnknownType() : "Unknown";
+		Color typeColor = task.getType() != null ? Color.decode(task.getType().getColorHex()) : Color.GRAY;
+
+		JLabel typeLabel = new JLabel(typeName);
+		typeLabel.setForeground(typeColor);
 		typeLabel.setFont(new Font("Arial", Font.BOLD, 10));
 		typeLabel.setBorder(BorderFactory.createCompoundBorder(
-			BorderFactory.createLineBorder(Color.decode(task.getType().getColorHex()), 1),
+			BorderFactory.createLineBorder(typeColor, 1),
 			new EmptyBorder(2, 4, 2, 4)
 		));
 		descriptionPanel.add(typeLabel);
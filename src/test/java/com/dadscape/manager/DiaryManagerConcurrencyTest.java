@@ -0,0 +1,323 @@
+package com.dadscape.manager;
+
+import com.dadscape.model.BinaryCodec;
+import com.dadscape.model.ClanDiary;
+import com.dadscape.model.DiaryHeader;
+import com.dadscape.model.DiaryTask;
+import com.dadscape.model.DiaryTier;
+import com.dadscape.model.TaskType;
+import com.dadscape.model.UserProgress;
+import com.google.gson.Gson;
+import net.runelite.client.config.ConfigManager;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Stress test for the concurrency model of DiaryManager and ProgressStore: API syncs and
+ * reloads publish new diary sets while readers load diaries lazily and progress is
+ * updated and flushed from other threads.
+ */
+public class DiaryManagerConcurrencyTest
+{
+	private static final String PROFILE = "rsprofile.test";
+	private static final String RSN = "Zezima";
+
+	private static final int ALL_DIARIES = 20;
+	private static final int KEPT_DIARIES = 10;
+	private static final int TIERS = 3;
+	private static final int TASKS_PER_TIER = 5;
+
+	private static final int SYNCS = 200;
+	private static final int UPDATES_PER_WRITER = 5000;
+	private static final int PROGRESS_WRITERS = 2;
+	private static final int COMPLETE_AT = 10;
+
+	@Rule
+	public TemporaryFolder journalDir = new TemporaryFolder();
+
+	private final Map<String, String> config = new ConcurrentHashMap<>();
+	private final Map<String, String> profileConfig = new ConcurrentHashMap<>();
+	private final AtomicInteger generation = new AtomicInteger();
+
+	private DiaryManager diaryManager;
+	private ProgressStore progressStore;
+
+	@Before
+	public void before()
+	{
+		ConfigManager configManager = mock(ConfigManager.class, withSettings().stubOnly());
+		when(configManager.getConfiguration(anyString(), anyString()))
+			.thenAnswer(invocation -> config.get(invocation.getArgument(1)));
+		doAnswer(invocation -> config.put(invocation.getArgument(1), invocation.getArgument(2)))
+			.when(configManager).setConfiguration(anyString(), anyString(), anyString());
+		doAnswer(invocation -> config.remove(invocation.getArgument(1)))
+			.when(configManager).unsetConfiguration(anyString(), anyString());
+		when(configManager.getRSProfileKey()).thenReturn(PROFILE);
+		when(configManager.getRSProfileConfiguration(anyString(), anyString()))
+			.thenAnswer(invocation -> profileConfig.get(invocation.getArgument(1)));
+		doAnswer(invocation -> profileConfig.put(invocation.getArgument(1), invocation.getArgument(2)))
+			.when(configManager).setRSProfileConfiguration(anyString(), anyString(), anyString());
+		doAnswer(invocation -> profileConfig.remove(invocation.getArgument(1)))
+			.when(configManager).unsetRSProfileConfiguration(anyString(), anyString());
+
+		// Each sync returns the next generation: even ones hold every diary, odd ones drop half
+		ApiService apiService = mock(ApiService.class, withSettings().stubOnly());
+		when(apiService.isConfigured()).thenReturn(true);
+		when(apiService.fetchDiaries(anyBoolean()))
+			.thenAnswer(invocation -> CompletableFuture.completedFuture(diaries(generation.incrementAndGet())));
+		when(apiService.fetchMotd(anyBoolean())).thenReturn(CompletableFuture.completedFuture(null));
+
+		diaryManager = new DiaryManager(new DiaryStorageService(configManager), apiService, mock(PermissionManager.class));
+		progressStore = new ProgressStore(configManager, diaryManager, new Gson(), journalDir.getRoot());
+
+		generation.set(-1);
+		diaryManager.syncFromApi();
+	}
+
+	@Test
+	public void testConcurrentPublishesReadsAndProgress() throws Exception
+	{
+		Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		AtomicBoolean publishing = new AtomicBoolean(true);
+		AtomicBoolean updating = new AtomicBoolean(true);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService threads = Executors.newFixedThreadPool(6 + PROGRESS_WRITERS);
+
+		// API syncs, with the occasional reload from storage
+		threads.execute(guard(failures, start, () -> {
+			try
+			{
+				for (int i = 0; i < SYNCS; i++)
+				{
+					diaryManager.syncFromApi();
+					if (i % 10 == 0)
+					{
+						diaryManager.loadDiaries();
+					}
+				}
+			}
+			finally
+			{
+				publishing.set(false);
+			}
+		}));
+
+		// Tracker-style reads: every active diary must come from one complete generation
+		threads.execute(guard(failures, start, () -> {
+			while (publishing.get())
+			{
+				assertConsistent(diaryManager.getActiveDiaries());
+			}
+		}));
+
+		// UI-style reads of single diaries, loading them lazily
+		for (int r = 0; r < 2; r++)
+		{
+			threads.execute(guard(failures, start, () -> {
+				while (publishing.get())
+				{
+					for (int d = 0; d < ALL_DIARIES; d++)
+					{
+						ClanDiary diary = diaryManager.getDiaryById(diaryId(d));
+						if (diary != null)
+						{
+							assertEquals(diaryId(d), diary.getId());
+							assertEquals(TIERS * TASKS_PER_TIER, diary.getTotalTaskCount());
+						}
+					}
+				}
+			}));
+		}
+
+		// Tracker-style progress updates on diaries every generation keeps
+		AtomicInteger writersLeft = new AtomicInteger(PROGRESS_WRITERS);
+		for (int w = 0; w < PROGRESS_WRITERS; w++)
+		{
+			threads.execute(guard(failures, start, () -> {
+				try
+				{
+					for (int i = 0; i < UPDATES_PER_WRITER; i++)
+					{
+						String diaryId = diaryId(i % KEPT_DIARIES);
+						String taskId = taskId(diaryId, 0, (i / KEPT_DIARIES) % TASKS_PER_TIER);
+						progressStore.update(RSN, diaryId, progress -> {
+							progress.incrementTaskProgress(taskId, 1);
+							if (progress.getTaskProgress(taskId) >= COMPLETE_AT)
+							{
+								progress.completeTask(taskId);
+							}
+							progressStore.record(progress, taskId);
+						});
+						progressStore.sync();
+					}
+				}
+				finally
+				{
+					if (writersLeft.decrementAndGet() == 0)
+					{
+						updating.set(false);
+					}
+				}
+			}));
+		}
+
+		// Periodic compaction and panel-style progress reads
+		threads.execute(guard(failures, start, () -> {
+			while (updating.get())
+			{
+				progressStore.flush();
+			}
+		}));
+		threads.execute(guard(failures, start, () -> {
+			while (updating.get())
+			{
+				for (int d = 0; d < KEPT_DIARIES; d++)
+				{
+					// The same read TaskTracker.getDiaryCompletion makes for the diary list
+					DiaryHeader header = diaryManager.getHeaderById(diaryId(d));
+					assertNotNull(header);
+					int completion = progressStore.read(RSN, diaryId(d), progress -> progress.getCompletionPercentage(header.getTaskCount()));
+					assertTrue("Completion out of range: " + completion, completion >= 0 && completion <= 100);
+
+					UserProgress copy = progressStore.copy(RSN, diaryId(d));
+					assertNotNull(copy);
+				}
+			}
+		}));
+
+		start.countDown();
+		threads.shutdown();
+		assertTrue("Stress test timed out", threads.awaitTermination(2, TimeUnit.MINUTES));
+
+		for (Throwable failure : failures)
+		{
+			throw new AssertionError("Concurrent access failed", failure);
+		}
+
+		// The last published set is the last generation fetched
+		List<ClanDiary> active = diaryManager.getActiveDiaries();
+		assertConsistent(active);
+		assertEquals(generation.get() % 2 == 0 ? ALL_DIARIES : KEPT_DIARIES, active.size());
+		assertTrue(active.get(0).getName().endsWith(" gen " + generation.get()));
+
+		// No progress update was lost, in memory or in the flushed snapshot
+		progressStore.flush();
+		int expected = PROGRESS_WRITERS * UPDATES_PER_WRITER / (KEPT_DIARIES * TASKS_PER_TIER);
+		for (int d = 0; d < KEPT_DIARIES; d++)
+		{
+			String diaryId = diaryId(d);
+			UserProgress stored = BinaryCodec.decodeProgress(profileConfig.get("progress_" + diaryId + "_" + RSN.toLowerCase()));
+			for (int t = 0; t < TASKS_PER_TIER; t++)
+			{
+				String taskId = taskId(diaryId, 0, t);
+				assertEquals(expected, (int) progressStore.read(RSN, diaryId, progress -> progress.getTaskProgress(taskId)));
+				assertEquals(expected, stored.getTaskProgress(taskId));
+				assertTrue(stored.isTaskCompleted(taskId));
+			}
+
+			// Every task of the first tier is complete, out of all tiers
+			int completion = progressStore.read(RSN, diaryId, progress -> progress.getCompletionPercentage(diaryManager.getHeaderById(diaryId).getTaskCount()));
+			assertEquals(100 / TIERS, completion);
+		}
+	}
+
+	/**
+	 * Active diaries must be one whole generation: every diary it holds, all fully loaded
+	 */
+	private static void assertConsistent(List<ClanDiary> active)
+	{
+		assertTrue("Partial diary set of " + active.size(), active.size() == ALL_DIARIES || active.size() == KEPT_DIARIES);
+
+		String generation = active.get(0).getName().substring(active.get(0).getName().indexOf(" gen "));
+		for (int d = 0; d < active.size(); d++)
+		{
+			ClanDiary diary = active.get(d);
+			assertEquals(diaryId(d), diary.getId());
+			assertTrue("Mixed generations: " + diary.getName(), diary.getName().endsWith(generation));
+			assertEquals(TIERS * TASKS_PER_TIER, diary.getTotalTaskCount());
+		}
+	}
+
+	private static Runnable guard(Queue<Throwable> failures, CountDownLatch start, Runnable body)
+	{
+		return () -> {
+			try
+			{
+				start.await();
+				body.run();
+			}
+			catch (Throwable t)
+			{
+				failures.add(t);
+			}
+		};
+	}
+
+	private static List<ClanDiary> diaries(int generation)
+	{
+		int count = generation % 2 == 0 ? ALL_DIARIES : KEPT_DIARIES;
+		List<ClanDiary> diaries = new ArrayList<>(count);
+		for (int d = 0; d < count; d++)
+		{
+			String id = diaryId(d);
+			ClanDiary diary = new ClanDiary();
+			diary.setId(id);
+			diary.setName("Diary " + id + " gen " + generation);
+			diary.setCategory(d % 2 == 0 ? "PvM" : "Skilling");
+			diary.setVersion("1.0");
+			diary.setActive(true);
+
+			List<DiaryTier> tiers = new ArrayList<>(TIERS);
+			for (int t = 0; t < TIERS; t++)
+			{
+				DiaryTier tier = DiaryTier.create("Tier " + t, "#FFFFFF", t);
+				for (int k = 0; k < TASKS_PER_TIER; k++)
+				{
+					DiaryTask task = DiaryTask.create("Task " + k + " gen " + generation, TaskType.CUSTOM);
+					task.setId(taskId(id, t, k));
+					tier.addTask(task);
+				}
+				tiers.add(tier);
+			}
+			diary.setTiers(tiers);
+			diaries.add(diary);
+		}
+		return diaries;
+	}
+
+	private static String diaryId(int index)
+	{
+		return "d" + index;
+	}
+
+	private static String taskId(String diaryId, int tier, int task)
+	{
+		return diaryId + "-" + tier + "-" + task;
+	}
+}
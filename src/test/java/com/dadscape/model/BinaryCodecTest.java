@@ -0,0 +1,302 @@
+package com.dadscape.model;
+
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryCodecTest
+{
+	private final Gson gson = new Gson();
+
+	@Test
+	public void testDiariesRoundTrip()
+	{
+		List<ClanDiary> diaries = Arrays.asList(diary("d1", "Lumbridge", 3, 4), diary("d2", "Varrock", 1, 2));
+
+		String encoded = BinaryCodec.encodeDiaries(diaries);
+
+		assertTrue(BinaryCodec.isEncoded(encoded));
+		assertEquals(diaries, BinaryCodec.decodeDiaries(encoded));
+	}
+
+	@Test
+	public void testEmptyDiaries()
+	{
+		assertEquals(Collections.emptyList(), BinaryCodec.decodeDiaries(BinaryCodec.encodeDiaries(Collections.emptyList())));
+	}
+
+	@Test
+	public void testNullAndEmptyCollectionsAreKeptApart()
+	{
+		ClanDiary noTiers = diary("d1", "No tiers", 0, 0);
+		noTiers.setTiers(null);
+		noTiers.setDescription(null);
+
+		ClanDiary emptyTier = diary("d2", "Empty tier", 1, 0);
+		emptyTier.getTiers().get(0).setTasks(new ArrayList<>());
+
+		ClanDiary noTasks = diary("d3", "Null tasks", 1, 0);
+		noTasks.getTiers().get(0).setTasks(null);
+
+		ClanDiary noRequirements = diary("d4", "Null requirements", 1, 1);
+		noRequirements.getTiers().get(0).getTasks().get(0).setRequirements(null);
+		noRequirements.getTiers().get(0).getTasks().get(0).setType(null);
+
+		List<ClanDiary> diaries = Arrays.asList(noTiers, emptyTier, noTasks, noRequirements);
+		List<ClanDiary> decoded = BinaryCodec.decodeDiaries(BinaryCodec.encodeDiaries(diaries));
+
+		assertEquals(diaries, decoded);
+		assertNull(decoded.get(0).getTiers());
+		assertTrue(decoded.get(1).getTiers().get(0).getTasks().isEmpty());
+		assertNull(decoded.get(2).getTiers().get(0).getTasks());
+		assertNull(decoded.get(3).getTiers().get(0).getTasks().get(0).getRequirements());
+	}
+
+	@Test
+	public void testUnicodeStrings()
+	{
+		ClanDiary diary = diary("d1", "Drachenübung 龍 🐉", 1, 1);
+		diary.setCreatedBy("Jörmungandr");
+		DiaryTask task = diary.getTiers().get(0).getTasks().get(0);
+		task.setDescription("Töte 50 Élfen — ドラゴン");
+		task.getRequirements().put("monster", "Гоблин");
+
+		List<ClanDiary> diaries = Collections.singletonList(diary);
+
+		assertEquals(diaries, BinaryCodec.decodeDiaries(BinaryCodec.encodeDiaries(diaries)));
+	}
+
+	@Test
+	public void testLargeVarints()
+	{
+		ClanDiary diary = diary("d1", "Limits", 1, 1);
+		diary.setCreatedDate(Long.MAX_VALUE);
+		diary.setLastModified(-1L);
+		diary.getTiers().get(0).setOrder(Integer.MIN_VALUE);
+		diary.getTiers().get(0).getTasks().get(0).setOrder(Integer.MAX_VALUE);
+
+		// Enough distinct strings for string references past one varint byte
+		ClanDiary big = diary("d2", "Big", 4, 100);
+
+		List<ClanDiary> diaries = Arrays.asList(diary, big);
+
+		assertEquals(diaries, BinaryCodec.decodeDiaries(BinaryCodec.encodeDiaries(diaries)));
+	}
+
+	@Test
+	public void testUnknownTaskTypeIsKept()
+	{
+		ClanDiary diary = diary("d1", "Newer", 1, 1);
+		DiaryTask task = diary.getTiers().get(0).getTasks().get(0);
+		task.setType(null);
+		task.setUnknownType("SAILING");
+
+		String encoded = BinaryCodec.encodeDiaries(Collections.singletonList(diary));
+		DiaryTask decoded = BinaryCodec.decodeDiaries(encoded).get(0).getTiers().get(0).getTasks().get(0);
+
+		assertNull(decoded.getType());
+		assertEquals("SAILING", decoded.getUnknownType());
+		assertEquals("SAILING", decoded.copy().getUnknownType());
+
+		// Saving again writes the type as it was stored
+		assertEquals(encoded, BinaryCodec.encodeDiaries(BinaryCodec.decodeDiaries(encoded)));
+
+		decoded.setType(TaskType.CUSTOM);
+		assertNull(decoded.getUnknownType());
+	}
+
+	@Test
+	public void testLegacyJsonDiaries()
+	{
+		String json = "[{\"id\":\"d1\",\"name\":\"Lumbridge\",\"category\":\"PvM\",\"version\":\"1.0\","
+			+ "\"createdDate\":1700000000000,\"lastModified\":1700000000001,\"active\":true,"
+			+ "\"tiers\":[{\"tierName\":\"Easy\",\"tierColor\":\"#00FF00\",\"order\":0,"
+			+ "\"tasks\":[{\"id\":\"t1\",\"description\":\"Kill a goblin\",\"type\":\"KILL\","
+			+ "\"requirements\":{\"monster\":\"Goblin\",\"count\":\"1\"},\"order\":0}]}]}]";
+
+		assertFalse(BinaryCodec.isEncoded(json));
+
+		List<ClanDiary> legacy = Arrays.asList(gson.fromJson(json, ClanDiary[].class));
+
+		assertEquals(legacy, BinaryCodec.decodeDiaries(BinaryCodec.encodeDiaries(legacy)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testJsonIsNotDecoded()
+	{
+		BinaryCodec.decodeDiaries("[{\"id\":\"d1\"}]");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongKindIsRejected()
+	{
+		BinaryCodec.decodeProgress(BinaryCodec.encodeDiaries(Collections.singletonList(diary("d1", "Diary", 1, 1))));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTruncatedRecordIsRejected()
+	{
+		String encoded = BinaryCodec.encodeDiaries(Collections.singletonList(diary("d1", "Diary", 2, 3)));
+		BinaryCodec.decodeDiaries(encoded.substring(0, encoded.length() / 2 / 4 * 4));
+	}
+
+	@Test
+	public void testProgressRoundTrip()
+	{
+		UserProgress progress = UserProgress.create("Zezima", "d1");
+		progress.updateTaskProgress("t1", 12);
+		progress.updateTaskProgress("t2", 3);
+		progress.completeTask("t2");
+		progress.completeTask("t3");
+
+		assertProgressEquals(progress, BinaryCodec.decodeProgress(BinaryCodec.encodeProgress(progress)));
+	}
+
+	@Test
+	public void testBoundProgressRoundTrip()
+	{
+		ClanDiary diary = diary("d1", "Lumbridge", 2, 3);
+		TaskSlots layout = TaskSlots.of(diary);
+
+		UserProgress progress = UserProgress.create("Zezima", "d1");
+		progress.bind(layout);
+		progress.updateTaskProgress("d1-0-1", 5);
+		progress.completeTask("d1-0-0");
+		progress.completeTask("d1-1-2");
+		progress.completeTask("deleted-task");
+
+		UserProgress decoded = BinaryCodec.decodeProgress(BinaryCodec.encodeProgress(progress));
+		assertProgressEquals(progress, decoded);
+
+		decoded.bind(layout);
+		assertEquals(2, decoded.getCompletedCount());
+		assertEquals(1, decoded.getTierCompletedCount(0));
+		assertEquals(1, decoded.getTierCompletedCount(1));
+		assertTrue(decoded.isTaskCompleted("deleted-task"));
+	}
+
+	@Test
+	public void testEmptyProgress()
+	{
+		UserProgress progress = UserProgress.create("Zezima", "d1");
+
+		UserProgress decoded = BinaryCodec.decodeProgress(BinaryCodec.encodeProgress(progress));
+
+		assertProgressEquals(progress, decoded);
+		assertTrue(decoded.copyProgress().isEmpty());
+		assertTrue(decoded.copyCompleted().isEmpty());
+	}
+
+	@Test
+	public void testUnicodeProgress()
+	{
+		UserProgress progress = UserProgress.create("Jörmungandr 龍", "🐉");
+		progress.updateTaskProgress("täsk", 1);
+		progress.completeTask("täsk");
+
+		assertProgressEquals(progress, BinaryCodec.decodeProgress(BinaryCodec.encodeProgress(progress)));
+	}
+
+	@Test
+	public void testLargeProgressValues()
+	{
+		UserProgress progress = UserProgress.create("Zezima", "d1");
+		progress.updateTaskProgress("max", Integer.MAX_VALUE);
+		progress.updateTaskProgress("min", Integer.MIN_VALUE);
+		progress.updateTaskProgress("negative", -1);
+		// Enough task IDs for string references and the completion bitmap to span several bytes
+		for (int i = 0; i < 300; i++)
+		{
+			progress.completeTask("task-" + i);
+		}
+		progress.setLastUpdated(Long.MAX_VALUE);
+
+		assertProgressEquals(progress, BinaryCodec.decodeProgress(BinaryCodec.encodeProgress(progress)));
+	}
+
+	@Test
+	public void testLegacyJsonProgress()
+	{
+		String json = "{\"rsn\":\"Zezima\",\"diaryId\":\"d1\",\"taskProgress\":{\"t1\":7,\"t2\":1},"
+			+ "\"taskCompletion\":{\"t2\":true,\"t3\":false},\"lastUpdated\":1700000000000}";
+
+		assertFalse(BinaryCodec.isEncoded(json));
+
+		UserProgress legacy = gson.fromJson(json, UserProgress.class);
+		UserProgress decoded = BinaryCodec.decodeProgress(BinaryCodec.encodeProgress(legacy));
+
+		assertProgressEquals(legacy, decoded);
+		assertEquals(7, decoded.getTaskProgress("t1"));
+		assertTrue(decoded.isTaskCompleted("t2"));
+		assertFalse(decoded.isTaskCompleted("t3"));
+	}
+
+	private static void assertProgressEquals(UserProgress expected, UserProgress actual)
+	{
+		assertEquals(expected.getRsn(), actual.getRsn());
+		assertEquals(expected.getDiaryId(), actual.getDiaryId());
+		assertEquals(expected.getLastUpdated(), actual.getLastUpdated());
+		assertEquals(expected.copyProgress(), actual.copyProgress());
+		assertEquals(expected.copyCompleted(), actual.copyCompleted());
+	}
+
+	/**
+	 * Diary with task IDs of the form id-tier-task and a requirement per task
+	 */
+	private static ClanDiary diary(String id, String name, int tierCount, int tasksPerTier)
+	{
+		ClanDiary diary = new ClanDiary();
+		diary.setId(id);
+		diary.setName(name);
+		diary.setDescription("Description of " + name);
+		diary.setCategory("PvM");
+		diary.setVersion("1.0");
+		diary.setCreatedDate(1700000000000L);
+		diary.setCreatedBy("Zezima");
+		diary.setLastModified(1700000000001L);
+		diary.setLastModifiedBy("Zezima");
+		diary.setActive(true);
+
+		List<DiaryTier> tiers = new ArrayList<>();
+		for (int t = 0; t < tierCount; t++)
+		{
+			DiaryTier tier = new DiaryTier();
+			tier.setTierName("Tier " + t);
+			tier.setTierColor("#00FF00");
+			tier.setRewardDescription("");
+			tier.setOrder(t);
+
+			List<DiaryTask> tasks = new ArrayList<>();
+			for (int k = 0; k < tasksPerTier; k++)
+			{
+				Map<String, String> requirements = new LinkedHashMap<>();
+				requirements.put("monster", "Goblin " + k);
+				requirements.put("count", String.valueOf(k + 1));
+
+				DiaryTask task = new DiaryTask();
+				task.setId(id + "-" + t + "-" + k);
+				task.setDescription("Task " + k + " of tier " + t);
+				task.setType(TaskType.KILL);
+				task.setRequirements(requirements);
+				task.setHint(k % 2 == 0 ? null : "Hint " + k);
+				task.setOrder(k);
+				tasks.add(task);
+			}
+			tier.setTasks(tasks);
+			tiers.add(tier);
+		}
+		diary.setTiers(tiers);
+		return diary;
+	}
+}